@@ -0,0 +1,42 @@
+package eddiellopez.com.asynccall.benchmark;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A started lifecycle owner that only keeps its observers in a list, like a registry would,
+ * without dispatching any event.
+ */
+final class FakeLifecycleOwner implements LifecycleOwner {
+
+    private final Lifecycle lifecycle = new Lifecycle() {
+        private final List<LifecycleObserver> observers = new ArrayList<>();
+
+        @Override
+        public synchronized void addObserver(@NonNull LifecycleObserver observer) {
+            observers.add(observer);
+        }
+
+        @Override
+        public synchronized void removeObserver(@NonNull LifecycleObserver observer) {
+            observers.remove(observer);
+        }
+
+        @NonNull
+        @Override
+        public State getCurrentState() {
+            return State.STARTED;
+        }
+    };
+
+    @NonNull
+    @Override
+    public Lifecycle getLifecycle() {
+        return lifecycle;
+    }
+}
@@ -0,0 +1,16 @@
+package eddiellopez.com.asynccall.benchmark;
+
+import androidx.annotation.NonNull;
+
+import eddiellopez.com.asynccall.DeliveryTarget;
+
+/**
+ * A delivery target in place of the main looper, running the deliveries right away.
+ */
+final class FakeMainThread implements DeliveryTarget {
+
+    @Override
+    public void deliver(@NonNull Runnable delivery) {
+        delivery.run();
+    }
+}
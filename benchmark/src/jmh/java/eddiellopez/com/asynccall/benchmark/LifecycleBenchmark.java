@@ -0,0 +1,57 @@
+package eddiellopez.com.asynccall.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import eddiellopez.com.asynccall.Builder;
+import eddiellopez.com.asynccall.TaskHandle;
+import eddiellopez.com.asynccall.TaskScope;
+
+/**
+ * The cost of observing a lifecycle owner, per task observing it, or through a scope.
+ * Tasks run in place, so each one registers and unregisters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LifecycleBenchmark {
+
+    private static final Callable<String> NO_OP = () -> "Result";
+
+    private final FakeMainThread target = new FakeMainThread();
+
+    private final SubmitBenchmark.DirectExecutor direct = new SubmitBenchmark.DirectExecutor(true);
+
+    private final FakeLifecycleOwner owner = new FakeLifecycleOwner();
+
+    private final TaskScope scope = TaskScope.of(new FakeLifecycleOwner());
+
+    @Benchmark
+    public TaskHandle unobserved() {
+        return builder().start();
+    }
+
+    @Benchmark
+    public TaskHandle observed() {
+        return builder().observe(owner).start();
+    }
+
+    @Benchmark
+    public TaskHandle scoped() {
+        return builder().scope(scope).start();
+    }
+
+    private Builder<String> builder() {
+        return new Builder<String>()
+                .async(NO_OP)
+                .withExecutorService(direct)
+                .deliverTo(target);
+    }
+}
@@ -0,0 +1,98 @@
+package eddiellopez.com.asynccall.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import eddiellopez.com.asynccall.Builder;
+import eddiellopez.com.asynccall.TaskHandle;
+
+/**
+ * The cost of starting a task, up to handing it to the executor, and of a whole task run in
+ * place. With the gc profiler, it also reports the allocations per task.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SubmitBenchmark {
+
+    private static final Callable<String> NO_OP = () -> "Result";
+
+    private final FakeMainThread target = new FakeMainThread();
+
+    private final DirectExecutor discarding = new DirectExecutor(false);
+
+    private final DirectExecutor direct = new DirectExecutor(true);
+
+    @Benchmark
+    public TaskHandle submit() {
+        return new Builder<String>()
+                .async(NO_OP)
+                .withExecutorService(discarding)
+                .deliverTo(target)
+                .start();
+    }
+
+    @Benchmark
+    public TaskHandle submitRunAndDeliver() {
+        return new Builder<String>()
+                .async(NO_OP)
+                .withExecutorService(direct)
+                .deliverTo(target)
+                .onResult(result -> {
+                })
+                .start();
+    }
+
+    /**
+     * Runs the tasks in the calling thread, or drops them.
+     */
+    static final class DirectExecutor extends AbstractExecutorService {
+
+        private final boolean run;
+
+        DirectExecutor(boolean run) {
+            this.run = run;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (run) {
+                command.run();
+            }
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package eddiellopez.com.asynccall.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import eddiellopez.com.asynccall.AsyncExecutors;
+import eddiellopez.com.asynccall.Builder;
+
+/**
+ * End to end throughput of no-op tasks in the default executor, from start to delivery.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ThroughputBenchmark {
+
+    private static final int TASKS = 100;
+
+    private static final Callable<String> NO_OP = () -> "Result";
+
+    private final FakeMainThread target = new FakeMainThread();
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public void noOpTasks() throws InterruptedException {
+        final CountDownLatch delivered = new CountDownLatch(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            new Builder<String>()
+                    .async(NO_OP)
+                    .withExecutorService(AsyncExecutors.getDefault())
+                    .deliverTo(target)
+                    .onResult(result -> delivered.countDown())
+                    // A rejected or failed task is delivered as well, don't wait for it forever.
+                    .except(exception -> delivered.countDown())
+                    .start();
+        }
+        delivered.await();
+    }
+}
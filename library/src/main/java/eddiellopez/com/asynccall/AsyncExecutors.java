@@ -0,0 +1,101 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The executors managed by the library.
+ */
+public final class AsyncExecutors {
+
+    /**
+     * The capacity of the queue of the default executor, shared by all lanes.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 128;
+
+    private AsyncExecutors() {
+        // no-op, static utilities
+    }
+
+    /**
+     * The executor used by a {@link Builder} when none is specified.
+     * <p>
+     * It runs as many threads as processors, at least two, with a bounded queue. Queued tasks
+     * run by {@link Priority} lane, and in order within each lane.
+     *
+     * @return The process wide default executor.
+     */
+    @NonNull
+    public static ExecutorService getDefault() {
+        return Holder.DEFAULT;
+    }
+
+    /**
+     * An executor for tasks that mostly block, on I/O for instance.
+     * <p>
+     * On a JVM with virtual threads, JDK 21 or later, each task runs in a new virtual thread,
+     * so blocking tasks don't need an oversized pool. Elsewhere, Android included, it is the
+     * {@link #getDefault() default executor}. Virtual threads don't honor {@link Priority} lanes.
+     *
+     * @return The process wide executor for blocking tasks.
+     * @see #hasVirtualThreads()
+     */
+    @NonNull
+    public static ExecutorService getBlocking() {
+        final ExecutorService virtual = VirtualHolder.VIRTUAL;
+        return virtual != null ? virtual : getDefault();
+    }
+
+    /**
+     * @return True if {@link #getBlocking()} runs tasks in virtual threads.
+     */
+    public static boolean hasVirtualThreads() {
+        return VirtualHolder.VIRTUAL != null;
+    }
+
+    /**
+     * Sets what happens to the tasks submitted to the default executor when its queue is full.
+     *
+     * @param rejectionPolicy The policy. {@link RejectionPolicy#FAIL_FAST} by default.
+     */
+    public static void setRejectionPolicy(@NonNull RejectionPolicy rejectionPolicy) {
+        Holder.DEFAULT.setRejectionPolicy(rejectionPolicy);
+    }
+
+    private static final class VirtualHolder {
+        @Nullable
+        static final ExecutorService VIRTUAL = createVirtual();
+
+        // Looked up by reflection, the library compiles against older Java versions.
+        @Nullable
+        private static ExecutorService createVirtual() {
+            if (Platform.get().isAndroid()) {
+                return null;
+            }
+            try {
+                return (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor")
+                        .invoke(null);
+            } catch (NoSuchMethodException e) {
+                // Before JDK 21.
+                return null;
+            } catch (IllegalAccessException e) {
+                return null;
+            } catch (InvocationTargetException e) {
+                // A preview feature, not enabled.
+                return null;
+            }
+        }
+    }
+
+    private static final class Holder {
+        static final PriorityExecutor DEFAULT = new PriorityExecutor(
+                Math.max(2, Runtime.getRuntime().availableProcessors()),
+                DEFAULT_QUEUE_CAPACITY
+        );
+    }
+}
@@ -0,0 +1,188 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sources of many values, delivered as they are requested.
+ * <p>
+ * The interfaces follow the semantics of {@code java.util.concurrent.Flow}, which isn't
+ * available on every supported device: a {@link Subscriber} receives at most as many values as
+ * it has requested through its {@link Subscription}, and the producer does no work otherwise.
+ */
+public final class AsyncFlow {
+
+    private AsyncFlow() {
+        // no-op, static utilities
+    }
+
+    /**
+     * A producer of values, received by subscribers.
+     *
+     * @param <T> The type of the values.
+     */
+    @FunctionalInterface
+    public interface Publisher<T> {
+        /**
+         * Adds a subscriber, which is first handed its subscription.
+         *
+         * @param subscriber The subscriber.
+         */
+        void subscribe(@NonNull Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * A receiver of values. The calls to a subscriber never overlap.
+     *
+     * @param <T> The type of the values.
+     */
+    public interface Subscriber<T> {
+        /**
+         * Called first, before any value is sent.
+         *
+         * @param subscription Requests values, or cancels.
+         */
+        void onSubscribe(@NonNull Subscription subscription);
+
+        /**
+         * Called with each value requested.
+         *
+         * @param item The value.
+         */
+        void onNext(@Nullable T item);
+
+        /**
+         * Called once when the producer fails. Nothing is sent after.
+         *
+         * @param throwable The failure.
+         */
+        void onError(@NonNull Throwable throwable);
+
+        /**
+         * Called once when the producer is exhausted. Nothing is sent after.
+         */
+        void onComplete();
+    }
+
+    /**
+     * The link between a publisher and one of its subscribers.
+     */
+    public interface Subscription {
+        /**
+         * Adds to the number of values the subscriber is ready to receive.
+         *
+         * @param n The number of values, positive.
+         */
+        void request(long n);
+
+        /**
+         * Stops sending values. Values already sent may still arrive.
+         */
+        void cancel();
+    }
+
+    /**
+     * Produces values one at a time, when asked, in a worker thread. Typical sources are
+     * cursors, change feeds, or sensor reads, which may block until the next value is ready.
+     *
+     * @param <T> The type of the values.
+     */
+    public interface Source<T> {
+        /**
+         * @return True if there is a next value, false once exhausted.
+         * @throws Exception Any exception, sent to the subscriber as an error.
+         */
+        @WorkerThread
+        boolean hasNext() throws Exception;
+
+        /**
+         * @return The next value.
+         * @throws Exception Any exception, sent to the subscriber as an error.
+         */
+        @WorkerThread
+        @Nullable
+        T next() throws Exception;
+    }
+
+    /**
+     * A publisher pulling from a source in the default executor, see
+     * {@link #from(Source, Executor, LifecycleOwner)}.
+     *
+     * @param source The source.
+     * @param <T>    The type of the values.
+     * @return The publisher.
+     */
+    @NonNull
+    public static <T> Publisher<T> from(@NonNull Source<T> source) {
+        return from(source, AsyncExecutors.getDefault(), null);
+    }
+
+    /**
+     * A publisher pulling from a source in an executor, only while there is demand. When there is
+     * none, no thread is kept waiting.
+     * <p>
+     * Subscribed in the UI Thread, the subscriber is called there. When observing a lifecycle
+     * owner, the source isn't pulled while the owner is STOPPED, even with pending demand, which
+     * resumes once it's STARTED again. The subscription is cancelled when the owner is DESTROYED.
+     * <p>
+     * The source can only be pulled by a single subscriber, later ones fail with an
+     * {@link IllegalStateException}.
+     *
+     * @param source   The source.
+     * @param executor The executor running the source.
+     * @param owner    The lifecycle owner to observe, if any.
+     * @param <T>      The type of the values.
+     * @return The publisher.
+     */
+    @NonNull
+    public static <T> Publisher<T> from(
+            @NonNull Source<T> source,
+            @NonNull Executor executor,
+            @Nullable LifecycleOwner owner
+    ) {
+        return new SourcePublisher<>(source, executor, owner);
+    }
+
+    /**
+     * Pulls from a source, for a single subscriber.
+     */
+    private static final class SourcePublisher<T> implements Publisher<T> {
+
+        @NonNull
+        private final Source<T> source;
+
+        @NonNull
+        private final Executor executor;
+
+        @Nullable
+        private final LifecycleOwner owner;
+
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+
+        SourcePublisher(
+                @NonNull Source<T> source,
+                @NonNull Executor executor,
+                @Nullable LifecycleOwner owner
+        ) {
+            this.source = source;
+            this.executor = executor;
+            this.owner = owner;
+        }
+
+        @Override
+        public void subscribe(@NonNull Subscriber<? super T> subscriber) {
+            if (!subscribed.compareAndSet(false, true)) {
+                subscriber.onSubscribe(SourceSubscription.EMPTY);
+                subscriber.onError(new IllegalStateException("The source is already subscribed!"));
+                return;
+            }
+            new SourceSubscription<T>(source, subscriber, executor, owner, Threader.isUiThread())
+                    .start();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads many keys with a single call, for the tasks started close together.
+ * <p>
+ * Each task loads a single key, with {@code async(loader.load(key))}. The keys requested within
+ * the window are loaded together by the {@link BulkLoader}, and each task receives the value of
+ * its own key. Without a window, the keys requested in the UI Thread before its next message
+ * are loaded together. A batch reaching the maximum size is loaded right away.
+ * <p>
+ * A key requested more than once in a batch is loaded once. A key missing from the loaded values
+ * results in null. If the bulk load fails, every task of the batch fails with its exception.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+public final class BatchLoader<K, V> {
+
+    /**
+     * Loads the values of several keys at once.
+     *
+     * @param <K> The type of the keys.
+     * @param <V> The type of the values.
+     */
+    @FunctionalInterface
+    public interface BulkLoader<K, V> {
+        /**
+         * Called in a worker thread.
+         *
+         * @param keys The keys, distinct.
+         * @return The values, by key.
+         * @throws Exception If the values can't be loaded.
+         */
+        @NonNull
+        @WorkerThread
+        Map<K, V> load(@NonNull Set<K> keys) throws Exception;
+    }
+
+    /**
+     * The default maximum number of keys in a batch.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    @NonNull
+    private final BulkLoader<K, V> loader;
+
+    private final int maxBatchSize;
+
+    private final long windowNanos;
+
+    private final Object lock = new Object();
+
+    // Guarded by lock. Open to new keys.
+    @Nullable
+    private Batch pending;
+
+    /**
+     * Loads together the keys requested before the next message of the UI Thread, up to
+     * {@link #DEFAULT_MAX_BATCH_SIZE} at once.
+     *
+     * @param loader The bulk loader.
+     */
+    public BatchLoader(@NonNull BulkLoader<K, V> loader) {
+        this(loader, DEFAULT_MAX_BATCH_SIZE, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param loader       The bulk loader.
+     * @param maxBatchSize The maximum number of keys loaded at once.
+     * @param window       How long a batch waits for more keys, from the first one. Zero to wait
+     *                     for the next message of the UI Thread, or for nothing elsewhere.
+     * @param unit         The unit of the window.
+     */
+    public BatchLoader(
+            @NonNull BulkLoader<K, V> loader,
+            int maxBatchSize,
+            long window,
+            @NonNull TimeUnit unit
+    ) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("A batch needs at least a key!");
+        }
+        if (window < 0) {
+            throw new IllegalArgumentException("The window can't be negative!");
+        }
+        this.loader = loader;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = unit.toNanos(window);
+    }
+
+    /**
+     * A task loading a single key, along with the keys requested close to it. Called as a plain
+     * {@link Callable}, it loads the key by itself. It can't have a key or a cache of its own.
+     *
+     * @param key The key.
+     * @return The task.
+     * @see Builder#async(Callable)
+     */
+    @NonNull
+    public Callable<V> load(@NonNull K key) {
+        return new Load<>(this, key);
+    }
+
+    /**
+     * Adds a key to the open batch, opening one if needed.
+     *
+     * @param key      The key.
+     * @param threader The threader loading it.
+     * @param executor The executor, for a new batch.
+     */
+    private void enqueue(@NonNull K key, @NonNull Threader<?> threader, @NonNull Executor executor) {
+        final Batch batch;
+        final boolean opened;
+        final boolean full;
+        synchronized (lock) {
+            opened = pending == null;
+            if (opened) {
+                pending = new Batch(executor, threader.getPriority());
+            }
+            batch = pending;
+            batch.add(key, threader);
+            full = batch.size() >= maxBatchSize;
+            if (full) {
+                pending = null;
+            }
+        }
+
+        if (full) {
+            batch.submit();
+        } else if (opened) {
+            final Runnable flush = () -> flush(batch);
+            if (windowNanos == 0 && Threader.isUiThread()) {
+                MainThreadDispatcher.getInstance().post(flush);
+            } else {
+                Scheduler.schedule(flush, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    // Closes the window of a batch, unless it was already full.
+    private void flush(@NonNull Batch batch) {
+        synchronized (lock) {
+            if (pending != batch) {
+                return;
+            }
+            pending = null;
+        }
+        batch.submit();
+    }
+
+    /**
+     * The task of a single key.
+     */
+    static final class Load<K, V> implements Callable<V> {
+
+        @NonNull
+        private final BatchLoader<K, V> batchLoader;
+
+        @NonNull
+        private final K key;
+
+        Load(@NonNull BatchLoader<K, V> batchLoader, @NonNull K key) {
+            this.batchLoader = batchLoader;
+            this.key = key;
+        }
+
+        /**
+         * Loads the key in a batch, completing the threader when loaded.
+         *
+         * @param threader The threader.
+         * @param executor The executor.
+         */
+        void join(@NonNull Threader<?> threader, @NonNull Executor executor) {
+            batchLoader.enqueue(key, threader, executor);
+        }
+
+        @Override
+        public V call() throws Exception {
+            return batchLoader.loader.load(Collections.singleton(key)).get(key);
+        }
+    }
+
+    /**
+     * The keys loaded together, and the threaders waiting for them.
+     */
+    private final class Batch implements PrioritizedTask, DelegatedCall<Object> {
+
+        @NonNull
+        private final Executor executor;
+
+        @NonNull
+        private final Priority priority;
+
+        // Guarded by this.
+        private final Map<K, List<Threader<Object>>> waiting = new LinkedHashMap<>();
+
+        // Guarded by this. Once closed, the keys are being loaded.
+        private boolean closed;
+
+        Batch(@NonNull Executor executor, @NonNull Priority priority) {
+            this.executor = executor;
+            this.priority = priority;
+        }
+
+        @SuppressWarnings("unchecked")
+        void add(@NonNull K key, @NonNull Threader<?> threader) {
+            synchronized (this) {
+                List<Threader<Object>> threaders = waiting.get(key);
+                if (threaders == null) {
+                    threaders = new ArrayList<>(1);
+                    waiting.put(key, threaders);
+                }
+                threaders.add((Threader<Object>) threader);
+            }
+            ((Threader<Object>) threader).attach(this);
+        }
+
+        synchronized int size() {
+            return waiting.size();
+        }
+
+        void submit() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                reject(e);
+            }
+        }
+
+        @Override
+        public void leave(@NonNull Threader<Object> threader, boolean mayInterrupt) {
+            // Loading keys finish, and are ignored. Queued keys are no longer loaded.
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                final Iterator<List<Threader<Object>>> iterator = waiting.values().iterator();
+                while (iterator.hasNext()) {
+                    final List<Threader<Object>> threaders = iterator.next();
+                    if (threaders.remove(threader) && threaders.isEmpty()) {
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            final Map<K, List<Threader<Object>>> attached = close();
+            if (attached.isEmpty()) {
+                // Every task was cancelled.
+                return;
+            }
+
+            Map<K, V> values = null;
+            Exception failure = null;
+            try {
+                values = loader.load(Collections.unmodifiableSet(attached.keySet()));
+            } catch (Exception e) {
+                failure = e;
+            }
+            complete(attached, values, failure);
+        }
+
+        @NonNull
+        @Override
+        public Priority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public void reject(@NonNull RejectedExecutionException exception) {
+            complete(close(), null, exception);
+        }
+
+        @NonNull
+        private synchronized Map<K, List<Threader<Object>>> close() {
+            closed = true;
+            return waiting;
+        }
+
+        private void complete(
+                @NonNull Map<K, List<Threader<Object>>> attached,
+                @Nullable Map<K, V> values,
+                @Nullable Exception failure
+        ) {
+            for (Map.Entry<K, List<Threader<Object>>> entry : attached.entrySet()) {
+                final V value = values != null ? values.get(entry.getKey()) : null;
+                for (Threader<Object> threader : entry.getValue()) {
+                    threader.completeGathered(value, failure);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces the deliveries bound to the UI Thread.
+ * <p>
+ * Finished tasks queue their delivery without locking, and the queue is drained in a single
+ * main looper message. A pass stops after a number of deliveries or after some time, whatever
+ * comes first; the rest is left for the next message. So a burst of completions costs one looper
+ * message per pass, instead of one per result.
+ *
+ * @see Builder#batchDelivery(boolean)
+ */
+public final class BatchingDispatcher {
+
+    /**
+     * The default maximum of deliveries run in a single pass.
+     */
+    public static final int DEFAULT_MAX_DELIVERIES = 32;
+
+    /**
+     * The default maximum duration of a pass, in milliseconds.
+     */
+    public static final long DEFAULT_MAX_PASS_MILLIS = 4;
+
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    private final Runnable drain = this::drain;
+
+    @NonNull
+    private final Executor poster;
+
+    private volatile int maxDeliveries = DEFAULT_MAX_DELIVERIES;
+
+    private volatile long maxPassNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_PASS_MILLIS);
+
+    /**
+     * @param poster Posts the drain pass to the thread that runs the deliveries.
+     */
+    @VisibleForTesting
+    BatchingDispatcher(@NonNull Executor poster) {
+        this.poster = poster;
+    }
+
+    /**
+     * Limits the work done by a single pass on the UI Thread.
+     *
+     * @param maxDeliveries The maximum number of deliveries in a pass. At least one.
+     * @param maxDuration   The time after which no more deliveries start in the same pass.
+     * @param unit          The unit of the duration.
+     */
+    public static void setPassLimits(int maxDeliveries, long maxDuration, @NonNull TimeUnit unit) {
+        getInstance().setLimits(maxDeliveries, unit.toNanos(maxDuration));
+    }
+
+    static BatchingDispatcher getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    @VisibleForTesting
+    void setLimits(int maxDeliveries, long maxPassNanos) {
+        if (maxDeliveries < 1) {
+            throw new IllegalArgumentException("A pass must run at least one delivery!");
+        }
+        this.maxDeliveries = maxDeliveries;
+        this.maxPassNanos = maxPassNanos;
+    }
+
+    /**
+     * Queues a delivery, posting a drain pass if none is pending.
+     *
+     * @param delivery The delivery to run in the UI Thread.
+     */
+    void enqueue(@NonNull Runnable delivery) {
+        pending.offer(delivery);
+        schedule();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            poster.execute(drain);
+        }
+    }
+
+    @UiThread
+    private void drain() {
+        final int limit = maxDeliveries;
+        final long start = System.nanoTime();
+        try {
+            Runnable delivery;
+            for (int i = 0; i < limit && (delivery = pending.poll()) != null; i++) {
+                delivery.run();
+
+                if (System.nanoTime() - start >= maxPassNanos) {
+                    break;
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            // Whatever didn't fit in this pass, or was queued after the last poll, goes next.
+            if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    private static final class Holder {
+        static final BatchingDispatcher INSTANCE =
+                new BatchingDispatcher(MainThreadDispatcher.getInstance()::post);
+    }
+}
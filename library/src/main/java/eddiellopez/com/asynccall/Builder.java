@@ -1,15 +1,15 @@
 package eddiellopez.com.asynccall;
 
-import android.os.AsyncTask;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.lifecycle.LifecycleOwner;
 
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Builds {@link Threader} objects.
@@ -22,6 +22,37 @@ public class Builder<T> {
     private LifecycleOwner lifecycleOwner;
     private OnExceptionHandler onExceptionHandler;
     private ThreaderFactory threaderFactory = new ThreaderFactory();
+    private TaskOptions options = new TaskOptions();
+
+    /**
+     * Creates a builder for several tasks that run in parallel, in the executor, delivering
+     * all their results at once. If any of them fails, the first exception is delivered instead,
+     * and the tasks not started yet are dropped.
+     *
+     * @param tasks The tasks.
+     * @param <E>   The type of the results.
+     * @return A builder for the gathered task, to configure as any other, but for a key or a
+     * cache: its tasks would run one after the other.
+     */
+    @SafeVarargs
+    public static <E> Builder<List<E>> allOf(@NonNull Callable<? extends E>... tasks) {
+        return new Builder<List<E>>().async(Gather.all(tasks));
+    }
+
+    /**
+     * Creates a builder for several tasks that run in parallel, in the executor, delivering
+     * the first successful result. The tasks not started yet are then dropped. If all fail,
+     * the first exception is delivered.
+     *
+     * @param tasks The tasks, at least one.
+     * @param <E>   The type of the results.
+     * @return A builder for the gathered task, to configure as any other, but for a key or a
+     * cache: its tasks would run one after the other.
+     */
+    @SafeVarargs
+    public static <E> Builder<E> anyOf(@NonNull Callable<? extends E>... tasks) {
+        return new Builder<E>().async(Gather.any(tasks));
+    }
 
     /**
      * Specifies the calla to run asynchronously.
@@ -32,9 +63,83 @@ public class Builder<T> {
      */
     public Builder<T> async(@NonNull Callable<T> task) {
         this.callable = task;
+        options.progress = null;
+        return this;
+    }
+
+    /**
+     * Specifies a task that publishes partial results while it runs.
+     * Overrides any previously configured task.
+     * <p>
+     * Started in the UI Thread, the partial results are delivered there, coalesced to at most
+     * one call per frame. Like the final result, they are dropped while the lifecycle owner is
+     * stopped, unless {@link #sticky(boolean) sticky}. Keyed tasks publish to the first one only.
+     *
+     * @param task       The streaming task.
+     * @param onProgress Receives the partial results.
+     * @param <P>        The type of the partial results.
+     * @return This builder.
+     */
+    public <P> Builder<T> async(
+            @NonNull StreamingTask<T, P> task,
+            @NonNull OnProgressListener<P> onProgress
+    ) {
+        final ProgressStream<T, P> stream = new ProgressStream<>(task, onProgress);
+        this.callable = stream;
+        options.progress = stream;
         return this;
     }
 
+    /**
+     * Appends a step that takes the result of the task so far, and runs right after it,
+     * in the same worker thread.
+     * <p>
+     * The returned builder replaces this one, keeping its configuration except for the result
+     * listener, which should be specified after the last step.
+     *
+     * @param continuation The next step.
+     * @param <R>          The type of the result of the next step.
+     * @return A builder for the extended task.
+     * @throws IllegalStateException If no task was specified yet.
+     */
+    public <R> Builder<R> then(@NonNull Continuation<? super T, ? extends R> continuation) {
+        return chain(continuation, false);
+    }
+
+    /**
+     * Appends a step that takes the result of the task so far, and is submitted to the executor
+     * when it's ready, without going through the UI Thread. Unlike {@link #then(Continuation)},
+     * the worker thread is released in between, which lets queued tasks run first.
+     * <p>
+     * Keyed or cached tasks run all their steps back to back.
+     *
+     * @param continuation The next step.
+     * @param <R>          The type of the result of the next step.
+     * @return A builder for the extended task.
+     * @throws IllegalStateException If no task was specified yet.
+     * @see #then(Continuation)
+     */
+    public <R> Builder<R> thenAsync(@NonNull Continuation<? super T, ? extends R> continuation) {
+        return chain(continuation, true);
+    }
+
+    private <R> Builder<R> chain(
+            @NonNull Continuation<? super T, ? extends R> continuation,
+            boolean async
+    ) {
+        if (callable == null) {
+            throw new IllegalStateException("A step needs a task to follow, see async()!");
+        }
+        final Builder<R> next = new Builder<>();
+        next.callable = Pipeline.append(callable, continuation, async);
+        next.executor = executor;
+        next.lifecycleOwner = lifecycleOwner;
+        next.onExceptionHandler = onExceptionHandler;
+        next.threaderFactory = threaderFactory;
+        next.options = options;
+        return next;
+    }
+
     /**
      * Specifies a result listener that delivers a result.
      *
@@ -47,7 +152,7 @@ public class Builder<T> {
     }
 
     /**
-     * Specifies an {@link Executor}. The default {@link AsyncTask#THREAD_POOL_EXECUTOR}
+     * Specifies an {@link Executor}. The default {@link AsyncExecutors#getDefault()}
      * will be used if none specified.
      *
      * @param executor The executor.
@@ -60,7 +165,8 @@ public class Builder<T> {
 
     /**
      * Observes a lifecycle component to determine if the result should be delivered.
-     * If the owner is STOPPED, the result won't be delivered.
+     * If the owner is STOPPED, the result won't be delivered. If the owner is DESTROYED,
+     * the task is cancelled.
      *
      * @param lifecycleOwner The lifecycle owner
      * @return This builder.
@@ -70,6 +176,19 @@ public class Builder<T> {
         return this;
     }
 
+    /**
+     * Starts the task in the scope of a lifecycle owner, which observes the owner on behalf of
+     * all its tasks, with the same rules as {@link #observe(LifecycleOwner)}. Overrides the
+     * observed lifecycle owner, if any.
+     *
+     * @param scope The scope, see {@link TaskScope#of(LifecycleOwner)}.
+     * @return This builder.
+     */
+    public Builder<T> scope(@NonNull TaskScope scope) {
+        options.scope = scope;
+        return this;
+    }
+
     /**
      * Provides an exception handler that will handle exceptions on the asynchronous task.
      * If not provided, the responsibility of exception handling falls on the client.
@@ -82,26 +201,304 @@ public class Builder<T> {
         return this;
     }
 
+    /**
+     * Coalesces the delivery of the result with other finished tasks, when delivering in the
+     * UI Thread. A burst of completions is then delivered in a few looper messages, instead of
+     * one each. See {@link BatchingDispatcher} for the limits of each pass.
+     *
+     * @param batch Whether to batch the delivery. Disabled by default.
+     * @return This builder.
+     */
+    public Builder<T> batchDelivery(boolean batch) {
+        options.batchDelivery = batch;
+        return this;
+    }
+
+    /**
+     * Delivers the result, exception and progress of the task to a target, instead of the
+     * UI Thread or the worker thread. For example, to a background {@code HandlerThread}, or to
+     * a serial executor. Batching is then up to the target.
+     *
+     * @param target The delivery target, or null for the default.
+     * @return This builder.
+     * @see DeliveryTargets
+     */
+    public Builder<T> deliverTo(@Nullable DeliveryTarget target) {
+        options.target = target;
+        return this;
+    }
+
+    /**
+     * Keeps the result, or exception, that finishes while the observed lifecycle owner is
+     * STOPPED, and delivers it once the owner is STARTED again. Otherwise, it is dropped.
+     * Only the latest outcome is kept, and nothing is kept after the owner is DESTROYED.
+     *
+     * @param sticky Whether to redeliver on start. Disabled by default.
+     * @return This builder.
+     * @see #observe(LifecycleOwner)
+     */
+    public Builder<T> sticky(boolean sticky) {
+        options.sticky = sticky;
+        return this;
+    }
+
+    /**
+     * Hands the task to the executor through a limiter, which tunes how many tasks are in
+     * flight from their latency, and holds the excess. Share a limiter among the tasks of an
+     * executor.
+     * <p>
+     * Keyed, cached, gathered and batched tasks run through their shared call, gather, or batch
+     * rather than by themselves, and can't be limited: {@link #start()} throws.
+     *
+     * @param limiter The limiter, or null for none.
+     * @return This builder.
+     * @see ConcurrencyLimiter
+     */
+    public Builder<T> limit(@Nullable ConcurrencyLimiter limiter) {
+        options.limiter = limiter;
+        return this;
+    }
+
+    /**
+     * Doesn't run the task while the observed lifecycle owner is not STARTED. The owner is
+     * checked when the task is started, and again when it leaves the executor queue: a task of a
+     * stopped owner is parked, and submitted once the owner is STARTED again. A task of a
+     * DESTROYED owner is dropped. Otherwise, the task runs and only its delivery is suppressed.
+     *
+     * @param pause Whether to pause. Disabled by default.
+     * @return This builder.
+     * @see #observe(LifecycleOwner)
+     * @see #scope(TaskScope)
+     */
+    public Builder<T> pauseWhileStopped(boolean pause) {
+        options.pauseWhileStopped = pause;
+        return this;
+    }
+
+    /**
+     * Identifies the task, so that concurrent tasks started with an equal key share a single
+     * execution. The first task started runs its callable; the ones started with the same key
+     * before it finishes don't run theirs, and receive the same result or exception instead.
+     * Each task still delivers to its own listeners, and respects its own lifecycle owner.
+     * <p>
+     * Cancelling one of them doesn't affect the others; the shared execution is cancelled along
+     * with the last one.
+     * <p>
+     * The shared execution runs the callable as is: keyed tasks don't retry, park while
+     * stopped, resubmit their async stages, or go through a limiter.
+     * <p>
+     * The key also identifies the result in the cache, if any.
+     *
+     * @param key The key, with proper equals and hashCode. Null disables sharing.
+     * @return This builder.
+     */
+    public Builder<T> key(@Nullable Object key) {
+        options.key = key;
+        return this;
+    }
+
+    /**
+     * Checks a cache before running the task. A fresh result cached under the key of the task
+     * is delivered right away, without going through the executor. Otherwise the task runs,
+     * and its result is cached.
+     * <p>
+     * The cache needs the key of the task, which also shares its execution: a cached task has
+     * the limits of any keyed task.
+     *
+     * @param cache The cache.
+     * @param ttl   How long the result of this task stays fresh.
+     * @param unit  The unit of the time to live.
+     * @return This builder.
+     * @see #key(Object)
+     * @see #staleWhileRevalidate(boolean)
+     */
+    public Builder<T> cache(@NonNull ResultCache cache, long ttl, @NonNull TimeUnit unit) {
+        options.cache = cache;
+        options.cacheTtlMillis = unit.toMillis(ttl);
+        return this;
+    }
+
+    /**
+     * Checks a cache on disk before running the task, so that its result survives the process.
+     * The cache is checked in the executor, after the cache in memory, if any: a fresh result
+     * cached under the key of the task is delivered without running the task. Otherwise the task
+     * runs, and its result is cached.
+     * <p>
+     * As with {@link #cache(ResultCache, long, TimeUnit)}, the task needs a key, and has the
+     * limits of any keyed task.
+     *
+     * @param cache The cache.
+     * @param ttl   How long the result of this task stays fresh.
+     * @param unit  The unit of the time to live.
+     * @return This builder.
+     * @see #key(Object)
+     */
+    public Builder<T> diskCache(
+            @NonNull DiskResultCache<T> cache,
+            long ttl,
+            @NonNull TimeUnit unit
+    ) {
+        options.diskCache = cache;
+        options.diskCacheTtlMillis = unit.toMillis(ttl);
+        return this;
+    }
+
+    /**
+     * Delivers a stale cached result right away, and refreshes it in the background.
+     * The refreshed result is only cached, not delivered.
+     *
+     * @param staleWhileRevalidate Whether to deliver stale results. Disabled by default.
+     * @return This builder.
+     * @see #cache(ResultCache, long, TimeUnit)
+     */
+    public Builder<T> staleWhileRevalidate(boolean staleWhileRevalidate) {
+        options.staleWhileRevalidate = staleWhileRevalidate;
+        return this;
+    }
+
+    /**
+     * Specifies the lane of the task in the default executor. Queued tasks of a higher lane
+     * run first. Ignored by other executors.
+     *
+     * @param priority The lane. {@link Priority#NORMAL} by default.
+     * @return This builder.
+     */
+    public Builder<T> priority(@NonNull Priority priority) {
+        options.priority = priority;
+        return this;
+    }
+
+    /**
+     * Limits the time the task has to finish, counting from start, queued time included.
+     * When it elapses, the task is cancelled, interrupting it if running, and fails with a
+     * {@link java.util.concurrent.TimeoutException}. A result arriving later is dropped.
+     * <p>
+     * The deadlines of all tasks share a single timer thread. When delivering outside the
+     * UI Thread, the exception handler is called in that timer thread, and should be short.
+     *
+     * @param timeout The time limit. Zero, or less, for no limit.
+     * @param unit    The unit of the time limit.
+     * @return This builder.
+     */
+    public Builder<T> timeout(long timeout, @NonNull TimeUnit unit) {
+        options.timeoutMillis = Math.max(0, unit.toMillis(timeout));
+        return this;
+    }
+
+    /**
+     * Submits the task once no other task is started under the key for a while, like after the
+     * last keystroke of a search. Each task started under the key cancels the previous one,
+     * running or not, so only the latest result is delivered. The tasks still waiting are
+     * never submitted to the executor.
+     *
+     * @param key   Identifies the tasks superseding each other.
+     * @param delay The quiet time to wait for.
+     * @param unit  The unit of the delay.
+     * @return This builder.
+     */
+    public Builder<T> debounce(@NonNull Object key, long delay, @NonNull TimeUnit unit) {
+        options.trigger = Trigger.debounce(key, delay, unit);
+        return this;
+    }
+
+    /**
+     * Submits at most one task under the key per period, the latest one started. A task waiting
+     * for the period to end is cancelled, without being submitted, when another one is started.
+     * Unlike {@link #debounce(Object, long, TimeUnit)}, a task already submitted is left to
+     * complete, so that results keep coming while tasks are started continuously.
+     *
+     * @param key    Identifies the tasks superseding each other.
+     * @param period The minimum time between two submissions.
+     * @param unit   The unit of the period.
+     * @return This builder.
+     */
+    public Builder<T> throttle(@NonNull Object key, long period, @NonNull TimeUnit unit) {
+        options.trigger = Trigger.throttle(key, period, unit);
+        return this;
+    }
+
+    /**
+     * Submits the task at once, cancelling the previous one started under the key, interrupting
+     * it if running. Only the latest result is delivered.
+     *
+     * @param key Identifies the tasks superseding each other.
+     * @return This builder.
+     */
+    public Builder<T> switchLatest(@NonNull Object key) {
+        options.trigger = Trigger.switchLatest(key);
+        return this;
+    }
+
+    /**
+     * Names the task in the metrics and traces of the installed {@link TaskInstrumentation}.
+     * Tasks of the same kind should share a tag.
+     *
+     * @param tag The tag, or null for the default one.
+     * @return This builder.
+     * @see Instrumentation#install(TaskInstrumentation)
+     */
+    public Builder<T> tag(@Nullable String tag) {
+        options.tag = tag;
+        return this;
+    }
+
+    /**
+     * Runs the task again when it fails, as the policy allows. No thread is blocked during the
+     * backoff, the task is submitted again by the shared timer. Chained tasks resume from the
+     * failing step. Only the last exception is delivered.
+     * <p>
+     * A timeout covers all the attempts. Keyed and gathered tasks are not retried.
+     *
+     * @param policy The retry policy, or null not to retry.
+     * @return This builder.
+     */
+    public Builder<T> retry(@Nullable RetryPolicy policy) {
+        options.retryPolicy = policy;
+        return this;
+    }
+
     /**
      * Builds and starts.
      * After a task is started, it shouldn't be reused.
+     *
+     * @return A handle to cancel the task.
+     * @throws IllegalStateException If a cache is set without a key, or a key or a cache is set
+     *                               for gathered or batched tasks.
      */
-    public void start() {
+    @NonNull
+    public TaskHandle start() {
         if (callable == null) {
             throw new NullPointerException("A Threader cannot be started without a task!");
         }
 
-        if (executor == null) {
-            throw new NullPointerException("A Threader cannot be started without an Executor");
+        if ((options.cache != null || options.diskCache != null) && options.key == null) {
+            throw new IllegalStateException("A cached task needs a key!");
+        }
+
+        final Callable<?> head = callable instanceof Pipeline
+                ? ((Pipeline<?>) callable).head()
+                : callable;
+        if ((head instanceof Gather || head instanceof BatchLoader.Load) && options.key != null) {
+            // Shared or cached, it would run as a plain callable.
+            throw new IllegalStateException("Gathered or batched tasks can't have a key!");
+        }
+
+        if (options.limiter != null && (options.key != null
+                || head instanceof Gather || head instanceof BatchLoader.Load)) {
+            // They run elsewhere, the limiter would never see them.
+            throw new IllegalStateException("Keyed, gathered or batched tasks can't be limited!");
         }
 
-        getThreaderFactory().from(
-                executor,
+        final Threader<T> threader = getThreaderFactory().from(
+                executor != null ? executor : AsyncExecutors.getDefault(),
                 onExceptionHandler,
                 lifecycleOwner,
                 callable,
-                onConsumableResultListener
-        ).start();
+                onConsumableResultListener,
+                options
+        );
+        threader.start();
+        return threader;
     }
 
     @VisibleForTesting
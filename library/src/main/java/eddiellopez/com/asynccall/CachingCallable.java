@@ -0,0 +1,105 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs a task, storing its result in a {@link ResultCache}.
+ * <p>
+ * Also runs as the background refresh of a stale result, at most one per key of a cache at a
+ * time. A refresh dropped by the executor lets the next one through.
+ *
+ * @param <T> The type of the result.
+ */
+final class CachingCallable<T> implements Callable<T>, PrioritizedTask {
+
+    // By cache and key, two caches may use the same keys.
+    private static final Set<List<Object>> REFRESHING =
+            Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    @NonNull
+    private final Callable<T> callable;
+
+    @NonNull
+    private final ResultCache cache;
+
+    @NonNull
+    private final Object key;
+
+    private final long ttlMillis;
+
+    @NonNull
+    private final Priority priority;
+
+    @NonNull
+    private final List<Object> refreshKey;
+
+    CachingCallable(
+            @NonNull Callable<T> callable,
+            @NonNull ResultCache cache,
+            @NonNull Object key,
+            long ttlMillis,
+            @NonNull Priority priority
+    ) {
+        this.callable = callable;
+        this.cache = cache;
+        this.key = key;
+        this.ttlMillis = ttlMillis;
+        this.priority = priority;
+        this.refreshKey = Arrays.asList(cache, key);
+    }
+
+    @Override
+    public T call() throws Exception {
+        final T result = callable.call();
+        cache.put(key, result, ttlMillis);
+        return result;
+    }
+
+    /**
+     * Refreshes the cached result in the executor, unless a refresh is already running.
+     *
+     * @param executor The executor.
+     */
+    void refresh(@NonNull Executor executor) {
+        if (REFRESHING.add(refreshKey)) {
+            try {
+                executor.execute(this);
+            } catch (RuntimeException e) {
+                REFRESHING.remove(refreshKey);
+                throw e;
+            }
+        }
+    }
+
+    @NonNull
+    @Override
+    public Priority getPriority() {
+        return priority;
+    }
+
+    @Override
+    public void reject(@NonNull RejectedExecutionException exception) {
+        // Never ran, the next stale hit may try again.
+        REFRESHING.remove(refreshKey);
+    }
+
+    @Override
+    public void run() {
+        try {
+            call();
+        } catch (Exception e) {
+            // The stale result was already delivered, keep it until the next attempt.
+        } finally {
+            REFRESHING.remove(refreshKey);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the tasks in flight in an executor, tuning the limit from their latency.
+ * <p>
+ * A task is in flight from the time it's handed to the executor until it finishes running.
+ * Past the limit, tasks wait in the limiter, in order, rather than in the executor. The latency
+ * of each task, its wait in the executor plus its run time, is compared with the long term
+ * average: while it stays under the tolerance, the limit grows by one every time a limit's worth
+ * of tasks finish with the limiter in use; once over it, the limit is cut by the backoff ratio.
+ * That's additive increase, multiplicative decrease: more threads while they help, fewer as
+ * soon as the device is saturated.
+ * <p>
+ * A limiter is meant to be shared by the tasks of an executor. Keyed, gathered and batched
+ * tasks can't be limited, the builder refuses to start them with a limiter.
+ *
+ * @see Builder#limit(ConcurrencyLimiter)
+ */
+public final class ConcurrencyLimiter {
+
+    // The latency over the average, as a ratio, that cuts the limit.
+    private static final double TOLERANCE = 2.0;
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    // The weight of a new latency in the long term average, as a shift: 1/32.
+    private static final int AVERAGE_SHIFT = 5;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+
+    private final LatencyHistogram runTime = new LatencyHistogram();
+
+    // Guarded by this.
+    private double limit;
+
+    // Guarded by this.
+    private int inFlight;
+
+    // Guarded by this.
+    private long averageNanos;
+
+    // Guarded by this.
+    private final Queue<Pending> pending = new ArrayDeque<>();
+
+    /**
+     * @param initialLimit The limit to start with.
+     * @param minLimit     The lowest limit, at least one.
+     * @param maxLimit     The highest limit.
+     */
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limits: " + minLimit + ", " + maxLimit);
+        }
+        if (initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("The initial limit must be within the limits!");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * @return The current limit of tasks in flight.
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return The number of tasks in flight.
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return The number of tasks waiting in the limiter.
+     */
+    public synchronized int getQueued() {
+        return pending.size();
+    }
+
+    /**
+     * @return The time the tasks wait in the executor, once let through.
+     */
+    @NonNull
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * @return The time the tasks run.
+     */
+    @NonNull
+    public LatencyHistogram getRunTime() {
+        return runTime;
+    }
+
+    /**
+     * @param unit The unit of the result.
+     * @return The long term average latency, zero if none was measured yet.
+     */
+    public synchronized long getAverageLatency(@NonNull TimeUnit unit) {
+        return unit.convert(averageNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Hands a task to the executor, or queues it past the limit.
+     *
+     * @param threader The task.
+     * @param executor The executor.
+     * @throws RejectedExecutionException If the executor rejects the task right away.
+     */
+    void execute(@NonNull Threader<?> threader, @NonNull Executor executor) {
+        synchronized (this) {
+            if (inFlight >= (int) limit) {
+                pending.add(new Pending(threader, executor));
+                return;
+            }
+            inFlight++;
+        }
+        admit(threader, executor);
+    }
+
+    /**
+     * Releases a task done running, letting the queued ones through.
+     *
+     * @param queueWaitNanos The time it waited in the executor.
+     * @param runNanos       The time it ran, or a negative value if cancelled before running.
+     */
+    void release(long queueWaitNanos, long runNanos) {
+        if (runNanos >= 0) {
+            queueWait.record(queueWaitNanos);
+            runTime.record(runNanos);
+        }
+        synchronized (this) {
+            inFlight--;
+            if (runNanos >= 0) {
+                adjust(queueWaitNanos + runNanos);
+            }
+        }
+        drain();
+    }
+
+    // Guarded by this.
+    private void adjust(long latencyNanos) {
+        if (averageNanos == 0) {
+            averageNanos = latencyNanos;
+            return;
+        }
+        if (latencyNanos > averageNanos * TOLERANCE) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+        } else if (inFlight + 1 >= limit / 2) {
+            // Only grow a limit in use.
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        averageNanos += (latencyNanos - averageNanos) >> AVERAGE_SHIFT;
+    }
+
+    private void drain() {
+        while (true) {
+            final Pending next;
+            synchronized (this) {
+                if (inFlight >= (int) limit) {
+                    return;
+                }
+                next = pending.poll();
+                if (next == null) {
+                    return;
+                }
+                if (next.threader.isDone()) {
+                    // Cancelled while waiting.
+                    continue;
+                }
+                inFlight++;
+            }
+            try {
+                admit(next.threader, next.executor);
+            } catch (RejectedExecutionException e) {
+                next.threader.reject(e);
+            }
+        }
+    }
+
+    private void admit(@NonNull Threader<?> threader, @NonNull Executor executor) {
+        threader.admittedAtNanos = System.nanoTime();
+        try {
+            executor.execute(threader);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                inFlight--;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A task waiting in the limiter.
+     */
+    private static final class Pending {
+
+        @NonNull
+        final Threader<?> threader;
+
+        @NonNull
+        final Executor executor;
+
+        Pending(@NonNull Threader<?> threader, @NonNull Executor executor) {
+            this.threader = threader;
+            this.executor = executor;
+        }
+    }
+}
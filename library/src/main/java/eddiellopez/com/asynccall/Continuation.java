@@ -0,0 +1,25 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+/**
+ * A step of a task that follows the previous one, taking its result.
+ *
+ * @param <T> The type of the previous result.
+ * @param <R> The type of the result of this step.
+ * @see Builder#then(Continuation)
+ * @see Builder#thenAsync(Continuation)
+ */
+@FunctionalInterface
+public interface Continuation<T, R> {
+    /**
+     * Called in a worker thread with the previous result.
+     *
+     * @param input The previous result.
+     * @return The result of this step.
+     * @throws Exception Any exception, delivered to the exception handler of the task.
+     */
+    @WorkerThread
+    R apply(@Nullable T input) throws Exception;
+}
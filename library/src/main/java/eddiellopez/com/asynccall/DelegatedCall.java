@@ -0,0 +1,20 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+
+/**
+ * An execution that runs the task on behalf of a threader, rather than the threader itself.
+ * The threader leaves it when cancelled.
+ *
+ * @param <T> The type of the result.
+ */
+interface DelegatedCall<T> {
+
+    /**
+     * Detaches a cancelled threader.
+     *
+     * @param threader     The threader.
+     * @param mayInterrupt Whether running work may be interrupted.
+     */
+    void leave(@NonNull Threader<T> threader, boolean mayInterrupt);
+}
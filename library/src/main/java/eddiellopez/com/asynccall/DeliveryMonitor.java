@@ -0,0 +1,151 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the deliveries made in the UI Thread, to find the listeners causing jank.
+ * <p>
+ * Each tag keeps a rolling average of its delivery times. A delivery taking longer than the
+ * budget is reported to the listener. Optionally, the deliveries of a tag whose average is over
+ * the budget are deferred to the next frame, so they don't stack up with other deliveries in
+ * the same one.
+ *
+ * @see Builder#tag(String)
+ */
+public final class DeliveryMonitor {
+
+    /**
+     * Receives the deliveries over budget.
+     */
+    @FunctionalInterface
+    public interface OnSlowDeliveryListener {
+        /**
+         * Called in the UI Thread, right after the slow delivery.
+         *
+         * @param tag           The tag of the task.
+         * @param durationNanos How long the delivery took, in nanoseconds.
+         */
+        @UiThread
+        void onSlowDelivery(@NonNull String tag, long durationNanos);
+    }
+
+    /**
+     * The default budget of a delivery, in milliseconds: half a frame at 60 Hz.
+     */
+    public static final long DEFAULT_BUDGET_MILLIS = 8;
+
+    // The weight of a new duration in the rolling average, as a shift: 1/8.
+    private static final int AVERAGE_SHIFT = 3;
+
+    @Nullable
+    private static volatile DeliveryMonitor installed;
+
+    private final long budgetNanos;
+
+    @NonNull
+    private final OnSlowDeliveryListener listener;
+
+    private volatile boolean deferOverBudget;
+
+    private final ConcurrentMap<String, Average> averages = new ConcurrentHashMap<>();
+
+    /**
+     * @param budget   The time a delivery may take.
+     * @param unit     The unit of the budget.
+     * @param listener Receives the deliveries over budget.
+     */
+    public DeliveryMonitor(long budget, @NonNull TimeUnit unit, @NonNull OnSlowDeliveryListener listener) {
+        this.budgetNanos = unit.toNanos(budget);
+        this.listener = listener;
+    }
+
+    /**
+     * Installs a monitor, replacing the current one.
+     *
+     * @param monitor The monitor, or null to remove it.
+     */
+    public static void install(@Nullable DeliveryMonitor monitor) {
+        installed = monitor;
+    }
+
+    /**
+     * @return The installed monitor, if any.
+     */
+    @Nullable
+    static DeliveryMonitor getInstalled() {
+        return installed;
+    }
+
+    /**
+     * Defers the deliveries of the tags over budget to the next frame.
+     *
+     * @param defer Whether to defer. Disabled by default.
+     * @return This monitor.
+     */
+    @NonNull
+    public DeliveryMonitor setDeferOverBudget(boolean defer) {
+        deferOverBudget = defer;
+        return this;
+    }
+
+    /**
+     * @param tag  A tag.
+     * @param unit The unit of the result.
+     * @return The rolling average of the delivery times of the tag, zero if none was timed.
+     */
+    public long getAverage(@NonNull String tag, @NonNull TimeUnit unit) {
+        final Average average = averages.get(tag);
+        return average == null ? 0 : unit.convert(average.nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param tag A tag.
+     * @return True if the deliveries of the tag are to be deferred.
+     */
+    boolean shouldDefer(@NonNull String tag) {
+        if (!deferOverBudget) {
+            return false;
+        }
+        final Average average = averages.get(tag);
+        return average != null && average.nanos > budgetNanos;
+    }
+
+    /**
+     * Records the time of a delivery, in the UI Thread.
+     *
+     * @param tag           The tag of the task.
+     * @param durationNanos How long the delivery took.
+     */
+    @UiThread
+    void record(@NonNull String tag, long durationNanos) {
+        Average average = averages.get(tag);
+        if (average == null) {
+            average = new Average(durationNanos);
+            averages.put(tag, average);
+        } else {
+            average.nanos += (durationNanos - average.nanos) >> AVERAGE_SHIFT;
+        }
+
+        if (durationNanos > budgetNanos) {
+            listener.onSlowDelivery(tag, durationNanos);
+        }
+    }
+
+    /**
+     * The rolling average of a tag, only updated in the UI Thread.
+     */
+    private static final class Average {
+
+        volatile long nanos;
+
+        Average(long nanos) {
+            this.nanos = nanos;
+        }
+    }
+}
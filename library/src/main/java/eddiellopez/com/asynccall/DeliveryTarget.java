@@ -0,0 +1,23 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Where the results, exceptions and progress of the tasks are delivered.
+ * <p>
+ * A target runs each delivery it's handed, in order, in the thread of its choice: a looper,
+ * a serial executor, or a consumer batching them. A {@code Handler::post} or a single thread
+ * {@code Executor::execute} are targets.
+ *
+ * @see Builder#deliverTo(DeliveryTarget)
+ * @see DeliveryTargets
+ */
+@FunctionalInterface
+public interface DeliveryTarget {
+    /**
+     * Runs a delivery, now or later. Deliveries must run in the order they are handed.
+     *
+     * @param delivery The delivery.
+     */
+    void deliver(@NonNull Runnable delivery);
+}
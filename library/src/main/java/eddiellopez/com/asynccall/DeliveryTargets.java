@@ -0,0 +1,63 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * The delivery targets provided by the library.
+ * <p>
+ * Without a target, a task started in the UI Thread delivers to {@link #mainThread()}, or to
+ * {@link #batchingMainThread()} if batching, and any other task delivers
+ * {@link #immediate() immediately} in the worker thread.
+ */
+public final class DeliveryTargets {
+
+    private static final DeliveryTarget IMMEDIATE = Runnable::run;
+
+    private DeliveryTargets() {
+        // no-op, static utilities
+    }
+
+    /**
+     * @return A target posting each delivery to the UI Thread.
+     */
+    @NonNull
+    public static DeliveryTarget mainThread() {
+        return MainThreadHolder.MAIN_THREAD;
+    }
+
+    /**
+     * @return A target posting the deliveries to the UI Thread, coalesced by the
+     * {@link BatchingDispatcher}.
+     */
+    @NonNull
+    public static DeliveryTarget batchingMainThread() {
+        return MainThreadHolder.BATCHING;
+    }
+
+    /**
+     * @return A target running each delivery right away, in the thread completing the task.
+     */
+    @NonNull
+    public static DeliveryTarget immediate() {
+        return IMMEDIATE;
+    }
+
+    /**
+     * A target handing the deliveries to an executor, which must run them in order. For instance,
+     * a single thread executor acting as a serial consumer.
+     *
+     * @param executor The executor.
+     * @return The target.
+     */
+    @NonNull
+    public static DeliveryTarget executor(@NonNull Executor executor) {
+        return executor::execute;
+    }
+
+    private static final class MainThreadHolder {
+        static final DeliveryTarget MAIN_THREAD = MainThreadDispatcher.getInstance()::post;
+        static final DeliveryTarget BATCHING = BatchingDispatcher.getInstance()::enqueue;
+    }
+}
@@ -0,0 +1,61 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs a task, unless its result is in a {@link DiskResultCache}, storing it otherwise.
+ * <p>
+ * The cache is best effort: if it can't be read or written, the task runs as if uncached.
+ *
+ * @param <T> The type of the result.
+ */
+final class DiskCachingCallable<T> implements Callable<T> {
+
+    @NonNull
+    private final Callable<T> callable;
+
+    @NonNull
+    private final DiskResultCache<T> cache;
+
+    @NonNull
+    private final Object key;
+
+    private final long ttlMillis;
+
+    DiskCachingCallable(
+            @NonNull Callable<T> callable,
+            @NonNull DiskResultCache<T> cache,
+            @NonNull Object key,
+            long ttlMillis
+    ) {
+        this.callable = callable;
+        this.cache = cache;
+        this.key = key;
+        this.ttlMillis = ttlMillis;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T call() throws Exception {
+        ResultCache.Entry entry = null;
+        try {
+            entry = cache.get(key);
+        } catch (IOException e) {
+            // Unreadable, run the task instead.
+        }
+        if (entry != null) {
+            return (T) entry.getValue();
+        }
+
+        final T result = callable.call();
+        try {
+            cache.put(key, result, ttlMillis);
+        } catch (IOException e) {
+            // The result is still good, it's only not persisted.
+        }
+        return result;
+    }
+}
@@ -0,0 +1,461 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A cache of task results on disk, surviving the process.
+ * <p>
+ * Results are appended to memory mapped segment files in a directory of its own, and found
+ * through an index in memory, of the location of each key. Results are identified by the string
+ * form of the key of the task. Once the segments exceed the maximum size, the results still
+ * fresh are copied to new segments, dropping the oldest ones past half the maximum size, and the
+ * old segments are deleted.
+ * <p>
+ * Every method does I/O, and must be called in a worker thread. The files are opened on first
+ * use. A single instance must own the directory.
+ *
+ * @param <V> The type of the results.
+ * @see Builder#diskCache(DiskResultCache, long, java.util.concurrent.TimeUnit)
+ */
+public final class DiskResultCache<V> {
+
+    /**
+     * Converts results to bytes, and back.
+     *
+     * @param <V> The type of the results.
+     */
+    public interface Codec<V> {
+        /**
+         * @param value The result.
+         * @return Its bytes.
+         * @throws IOException If the result can't be encoded.
+         */
+        @NonNull
+        byte[] encode(@Nullable V value) throws IOException;
+
+        /**
+         * @param bytes The bytes, as encoded.
+         * @return The result.
+         * @throws IOException If the bytes can't be decoded.
+         */
+        @Nullable
+        V decode(@NonNull byte[] bytes) throws IOException;
+    }
+
+    /**
+     * The default size of a segment file, in bytes.
+     */
+    public static final int DEFAULT_SEGMENT_BYTES = 1 << 20;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Marks a complete record, "ACR1".
+    private static final int MAGIC = 0x41435231;
+
+    // The magic, the key length, the value length and the expiry time.
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8;
+
+    // The value length of an invalidation.
+    private static final int TOMBSTONE = -1;
+
+    private static final String PREFIX = "segment-";
+
+    private static final String SUFFIX = ".dat";
+
+    @NonNull
+    private final File directory;
+
+    private final long maxBytes;
+
+    private final int segmentBytes;
+
+    @NonNull
+    private final Codec<V> codec;
+
+    // Guarded by this. The location of each key: the segment in the high bits, the offset in
+    // the low ones.
+    private final Map<String, Long> index = new HashMap<>();
+
+    // Guarded by this. The segments by id, oldest first.
+    private final TreeMap<Integer, MappedByteBuffer> segments = new TreeMap<>();
+
+    // Guarded by this. The segment appended to.
+    private int writeSegment = -1;
+
+    // Guarded by this.
+    private int writeOffset;
+
+    // Guarded by this.
+    private boolean opened;
+
+    /**
+     * A cache with segments of {@link #DEFAULT_SEGMENT_BYTES}, or smaller for a small cache.
+     *
+     * @param directory The directory of the segment files.
+     * @param maxBytes  The maximum size of the segment files, before compaction.
+     * @param codec     Converts the results to bytes.
+     */
+    public DiskResultCache(@NonNull File directory, long maxBytes, @NonNull Codec<V> codec) {
+        this(directory, maxBytes, (int) Math.min(DEFAULT_SEGMENT_BYTES, maxBytes / 4), codec);
+    }
+
+    /**
+     * @param directory    The directory of the segment files.
+     * @param maxBytes     The maximum size of the segment files, before compaction. At least four
+     *                     segments.
+     * @param segmentBytes The size of a segment file. Larger results aren't cached.
+     * @param codec        Converts the results to bytes.
+     */
+    public DiskResultCache(
+            @NonNull File directory,
+            long maxBytes,
+            int segmentBytes,
+            @NonNull Codec<V> codec
+    ) {
+        if (segmentBytes <= HEADER_BYTES) {
+            throw new IllegalArgumentException("The segments are too small!");
+        }
+        if (maxBytes < 4L * segmentBytes) {
+            throw new IllegalArgumentException("The cache must allow at least four segments!");
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.segmentBytes = segmentBytes;
+        this.codec = codec;
+    }
+
+    /**
+     * A codec of serializable results, with Java serialization.
+     *
+     * @return The codec.
+     */
+    @NonNull
+    public static <V extends Serializable> Codec<V> serializable() {
+        return new Codec<V>() {
+            @NonNull
+            @Override
+            public byte[] encode(@Nullable V value) throws IOException {
+                final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                final ObjectOutputStream output = new ObjectOutputStream(bytes);
+                output.writeObject(value);
+                output.close();
+                return bytes.toByteArray();
+            }
+
+            @Nullable
+            @Override
+            @SuppressWarnings("unchecked")
+            public V decode(@NonNull byte[] bytes) throws IOException {
+                final ObjectInputStream input =
+                        new ObjectInputStream(new ByteArrayInputStream(bytes));
+                try {
+                    return (V) input.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                } finally {
+                    input.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Looks up a result.
+     *
+     * @param key The key of the task.
+     * @return The cached entry, if fresh, or null if none.
+     * @throws IOException If the files or the result can't be read.
+     */
+    @Nullable
+    @WorkerThread
+    public ResultCache.Entry get(@NonNull Object key) throws IOException {
+        final byte[] valueBytes;
+        final long expiresAtMillis;
+        synchronized (this) {
+            open();
+            final Long location = index.get(String.valueOf(key));
+            if (location == null) {
+                return null;
+            }
+            final ByteBuffer record = recordAt(location);
+            final int keyLength = record.getInt(4);
+            valueBytes = new byte[record.getInt(8)];
+            expiresAtMillis = record.getLong(12);
+            record.position(HEADER_BYTES + keyLength);
+            record.get(valueBytes);
+        }
+
+        final long ttlMillis = expiresAtMillis - System.currentTimeMillis();
+        if (ttlMillis <= 0) {
+            // Dropped with the next compaction.
+            return null;
+        }
+        return new ResultCache.Entry(codec.decode(valueBytes), ttlMillis);
+    }
+
+    /**
+     * Stores a result. A result larger than a segment isn't stored.
+     *
+     * @param key       The key of the task.
+     * @param value     The result.
+     * @param ttlMillis How long the result stays fresh, in milliseconds.
+     * @throws IOException If the result can't be encoded, or written.
+     */
+    @WorkerThread
+    public void put(@NonNull Object key, @Nullable V value, long ttlMillis) throws IOException {
+        final byte[] keyBytes = String.valueOf(key).getBytes(UTF_8);
+        final byte[] valueBytes = codec.encode(value);
+        if (HEADER_BYTES + (long) keyBytes.length + valueBytes.length > segmentBytes) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        // Clamped, a longer time to live is fresh for good.
+        final long expiresAtMillis = ttlMillis > Long.MAX_VALUE - now
+                ? Long.MAX_VALUE
+                : now + ttlMillis;
+
+        synchronized (this) {
+            open();
+            index.put(String.valueOf(key), append(keyBytes, valueBytes, expiresAtMillis));
+            if ((long) segments.size() * segmentBytes > maxBytes) {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * Removes a result, if cached.
+     *
+     * @param key The key of the task.
+     * @throws IOException If the files can't be written.
+     */
+    @WorkerThread
+    public synchronized void invalidate(@NonNull Object key) throws IOException {
+        open();
+        final String name = String.valueOf(key);
+        if (index.remove(name) != null) {
+            append(name.getBytes(UTF_8), null, 0);
+        }
+    }
+
+    /**
+     * @return The number of results cached, fresh or not.
+     * @throws IOException If the files can't be read.
+     */
+    @WorkerThread
+    public synchronized int size() throws IOException {
+        open();
+        return index.size();
+    }
+
+    // Guarded by this. Loads the index from the segments, on first use.
+    private void open() throws IOException {
+        if (opened) {
+            return;
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        final File[] files = directory.listFiles();
+        final List<Integer> ids = new ArrayList<>();
+        if (files != null) {
+            for (File file : files) {
+                final String name = file.getName();
+                if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    try {
+                        ids.add(Integer.parseInt(
+                                name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        // Not a segment.
+                    }
+                }
+            }
+        }
+        final Integer[] sorted = ids.toArray(new Integer[0]);
+        Arrays.sort(sorted);
+        for (int id : sorted) {
+            final MappedByteBuffer segment = map(id);
+            segments.put(id, segment);
+            writeSegment = id;
+            writeOffset = scan(id, segment);
+        }
+        if (writeSegment < 0) {
+            newSegment();
+        }
+        opened = true;
+    }
+
+    // Guarded by this. Indexes the records of a segment, up to the first incomplete one.
+    private int scan(int id, @NonNull ByteBuffer segment) {
+        int offset = 0;
+        while (offset + HEADER_BYTES <= segment.capacity() && segment.getInt(offset) == MAGIC) {
+            final int keyLength = segment.getInt(offset + 4);
+            final int valueLength = segment.getInt(offset + 8);
+            final long length = HEADER_BYTES + (long) keyLength + Math.max(valueLength, 0);
+            if (keyLength < 0 || valueLength < TOMBSTONE || length > segment.capacity() - offset) {
+                break;
+            }
+            final byte[] keyBytes = new byte[keyLength];
+            final ByteBuffer record = segment.duplicate();
+            record.position(offset + HEADER_BYTES);
+            record.get(keyBytes);
+            final String key = new String(keyBytes, UTF_8);
+            if (valueLength == TOMBSTONE) {
+                index.remove(key);
+            } else {
+                index.put(key, location(id, offset));
+            }
+            offset += (int) length;
+        }
+        return offset;
+    }
+
+    /**
+     * Appends a record, to a new segment if the current one is full.
+     *
+     * @param keyBytes        The key.
+     * @param valueBytes      The value, or null for an invalidation.
+     * @param expiresAtMillis The expiry time.
+     * @return The location of the record.
+     * @throws IOException If a new segment can't be created.
+     */
+    private long append(
+            @NonNull byte[] keyBytes,
+            @Nullable byte[] valueBytes,
+            long expiresAtMillis
+    ) throws IOException {
+        final int valueLength = valueBytes != null ? valueBytes.length : 0;
+        final int length = HEADER_BYTES + keyBytes.length + valueLength;
+        if (writeOffset + length > segmentBytes) {
+            newSegment();
+        }
+
+        final ByteBuffer record = segments.get(writeSegment).duplicate();
+        record.position(writeOffset + 4);
+        record.putInt(keyBytes.length);
+        record.putInt(valueBytes != null ? valueLength : TOMBSTONE);
+        record.putLong(expiresAtMillis);
+        record.put(keyBytes);
+        if (valueBytes != null) {
+            record.put(valueBytes);
+        }
+        // Marked complete last, a torn record is ignored when scanned.
+        record.putInt(writeOffset, MAGIC);
+
+        final long location = location(writeSegment, writeOffset);
+        writeOffset += length;
+        return location;
+    }
+
+    /**
+     * Copies the fresh records to new segments, newest first up to half the maximum size, and
+     * deletes the old segments.
+     */
+    private void compact() throws IOException {
+        final List<Map.Entry<String, Long>> live = new ArrayList<>(index.entrySet());
+        // Newest first.
+        Collections.sort(live, (a, b) -> Long.compare(b.getValue(), a.getValue()));
+
+        final List<Integer> old = new ArrayList<>(segments.keySet());
+        final long now = System.currentTimeMillis();
+        final List<byte[]> keys = new ArrayList<>();
+        final List<byte[]> values = new ArrayList<>();
+        final List<Long> expiries = new ArrayList<>();
+        long bytes = 0;
+        for (Map.Entry<String, Long> entry : live) {
+            final ByteBuffer record = recordAt(entry.getValue());
+            final int keyLength = record.getInt(4);
+            final int valueLength = record.getInt(8);
+            final long expiresAtMillis = record.getLong(12);
+            if (expiresAtMillis <= now) {
+                continue;
+            }
+            bytes += HEADER_BYTES + keyLength + valueLength;
+            if (bytes > maxBytes / 2) {
+                break;
+            }
+            final byte[] keyBytes = new byte[keyLength];
+            final byte[] valueBytes = new byte[valueLength];
+            record.position(HEADER_BYTES);
+            record.get(keyBytes);
+            record.get(valueBytes);
+            keys.add(keyBytes);
+            values.add(valueBytes);
+            expiries.add(expiresAtMillis);
+        }
+
+        // Oldest first, so that the order of the records is kept.
+        newSegment();
+        index.clear();
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            final byte[] keyBytes = keys.get(i);
+            final long location = append(keyBytes, values.get(i), expiries.get(i));
+            index.put(new String(keyBytes, UTF_8), location);
+        }
+
+        // The new segments win over the old ones if deleting is interrupted, oldest go first.
+        for (int id : old) {
+            segments.remove(id);
+            //noinspection ResultOfMethodCallIgnored
+            segmentFile(id).delete();
+        }
+    }
+
+    // Guarded by this.
+    private void newSegment() throws IOException {
+        final int id = writeSegment + 1;
+        segments.put(id, map(id));
+        writeSegment = id;
+        writeOffset = 0;
+    }
+
+    @NonNull
+    private MappedByteBuffer map(int id) throws IOException {
+        final RandomAccessFile file = new RandomAccessFile(segmentFile(id), "rw");
+        try {
+            // The mapping stays valid once the file is closed.
+            return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        } finally {
+            file.close();
+        }
+    }
+
+    @NonNull
+    private File segmentFile(int id) {
+        return new File(directory, PREFIX + id + SUFFIX);
+    }
+
+    // Guarded by this. The record at a location, positioned at its start.
+    @NonNull
+    private ByteBuffer recordAt(long location) {
+        final ByteBuffer segment = segments.get((int) (location >>> 32)).duplicate();
+        segment.position((int) location);
+        return segment.slice();
+    }
+
+    private static long location(int segment, int offset) {
+        return ((long) segment << 32) | offset;
+    }
+}
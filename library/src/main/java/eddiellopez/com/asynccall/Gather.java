@@ -0,0 +1,286 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Several tasks run in parallel, gathered into a single result.
+ * <p>
+ * A {@link Threader} submits each task to its executor, and completes once with the combined
+ * outcome. No thread waits for the others. Called as a plain {@link Callable}, the tasks run
+ * one after the other instead.
+ *
+ * @param <T> The type of the gathered result.
+ * @see Builder#allOf(Callable[])
+ * @see Builder#anyOf(Callable[])
+ */
+final class Gather<T> implements Callable<T> {
+
+    @NonNull
+    private final Callable<?>[] tasks;
+
+    private final boolean any;
+
+    private Gather(@NonNull Callable<?>[] tasks, boolean any) {
+        for (Callable<?> task : tasks) {
+            if (task == null) {
+                throw new NullPointerException("Cannot gather a null task!");
+            }
+        }
+        this.tasks = tasks.clone();
+        this.any = any;
+    }
+
+    /**
+     * @param tasks The tasks.
+     * @return A gathering of all the results, in the order of the tasks, or the first exception.
+     */
+    @NonNull
+    static <E> Gather<List<E>> all(@NonNull Callable<? extends E>[] tasks) {
+        return new Gather<>(tasks, false);
+    }
+
+    /**
+     * @param tasks The tasks, at least one.
+     * @return A gathering of the first successful result, or the first exception if all fail.
+     */
+    @NonNull
+    static <E> Gather<E> any(@NonNull Callable<? extends E>[] tasks) {
+        if (tasks.length == 0) {
+            throw new IllegalArgumentException("anyOf needs at least a task!");
+        }
+        return new Gather<>(tasks, true);
+    }
+
+    /**
+     * Submits every task to the executor, completing the threader when gathered.
+     *
+     * @param threader The threader.
+     * @param executor The executor.
+     */
+    void start(@NonNull Threader<?> threader, @NonNull Executor executor) {
+        new Run(tasks, any, threader, executor).start();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T call() throws Exception {
+        if (!any) {
+            final List<Object> results = new ArrayList<>(tasks.length);
+            for (Callable<?> task : tasks) {
+                results.add(task.call());
+            }
+            return (T) Collections.unmodifiableList(results);
+        }
+
+        Exception first = null;
+        for (Callable<?> task : tasks) {
+            try {
+                return (T) task.call();
+            } catch (Exception e) {
+                if (first == null) {
+                    first = e;
+                }
+            }
+        }
+        throw first;
+    }
+
+    /**
+     * A single gathering, for a single threader.
+     */
+    private static final class Run implements DelegatedCall<Object> {
+
+        @NonNull
+        private final Callable<?>[] tasks;
+
+        private final boolean any;
+
+        @NonNull
+        private final Threader<?> threader;
+
+        @NonNull
+        private final Executor executor;
+
+        @NonNull
+        private final Object[] results;
+
+        @NonNull
+        private final Branch[] branches;
+
+        private final AtomicInteger remaining;
+
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private final AtomicReference<Exception> firstFailure = new AtomicReference<>();
+
+        Run(
+                @NonNull Callable<?>[] tasks,
+                boolean any,
+                @NonNull Threader<?> threader,
+                @NonNull Executor executor
+        ) {
+            this.tasks = tasks;
+            this.any = any;
+            this.threader = threader;
+            this.executor = executor;
+            results = new Object[tasks.length];
+            branches = new Branch[tasks.length];
+            remaining = new AtomicInteger(tasks.length);
+        }
+
+        @SuppressWarnings("unchecked")
+        void start() {
+            ((Threader<Object>) threader).attach(this);
+            if (tasks.length == 0) {
+                complete(Collections.emptyList(), null);
+                return;
+            }
+            for (int i = 0; i < tasks.length; i++) {
+                branches[i] = new Branch(i);
+            }
+            for (Branch branch : branches) {
+                if (done.get()) {
+                    return;
+                }
+                try {
+                    executor.execute(branch);
+                } catch (RejectedExecutionException e) {
+                    onFailure(e);
+                }
+            }
+        }
+
+        void onSuccess(int index, @Nullable Object result) {
+            if (any) {
+                complete(result, null);
+                return;
+            }
+            results[index] = result;
+            // The last decrement happens after every result is written.
+            if (remaining.decrementAndGet() == 0) {
+                complete(Collections.unmodifiableList(Arrays.asList(results)), null);
+            }
+        }
+
+        void onFailure(@NonNull Exception exception) {
+            if (!any) {
+                complete(null, exception);
+                return;
+            }
+            firstFailure.compareAndSet(null, exception);
+            if (remaining.decrementAndGet() == 0) {
+                complete(null, firstFailure.get());
+            }
+        }
+
+        private void complete(@Nullable Object value, @Nullable Exception failure) {
+            if (done.compareAndSet(false, true)) {
+                removeQueued();
+                threader.completeGathered(value, failure);
+            }
+        }
+
+        @Override
+        public void leave(@NonNull Threader<Object> threader, boolean mayInterrupt) {
+            // Running tasks are interrupted if allowed, or finish, and are ignored.
+            if (done.compareAndSet(false, true)) {
+                removeQueued();
+                if (mayInterrupt) {
+                    for (Branch branch : branches) {
+                        if (branch != null) {
+                            branch.interrupt();
+                        }
+                    }
+                }
+            }
+        }
+
+        private void removeQueued() {
+            if (executor instanceof ThreadPoolExecutor) {
+                for (Branch branch : branches) {
+                    if (branch != null) {
+                        ((ThreadPoolExecutor) executor).remove(branch);
+                    }
+                }
+            }
+        }
+
+        /**
+         * One of the tasks.
+         */
+        private final class Branch implements PrioritizedTask {
+
+            private final int index;
+
+            // Guarded by this.
+            @Nullable
+            private Thread runner;
+
+            // Guarded by this.
+            private boolean interrupted;
+
+            Branch(int index) {
+                this.index = index;
+            }
+
+            @NonNull
+            @Override
+            public Priority getPriority() {
+                return threader.getPriority();
+            }
+
+            @Override
+            public void reject(@NonNull RejectedExecutionException exception) {
+                onFailure(exception);
+            }
+
+            synchronized void interrupt() {
+                if (runner != null) {
+                    interrupted = true;
+                    runner.interrupt();
+                }
+            }
+
+            @Override
+            public void run() {
+                synchronized (this) {
+                    if (done.get()) {
+                        // Already gathered, or cancelled.
+                        return;
+                    }
+                    runner = Thread.currentThread();
+                }
+                final Object result;
+                try {
+                    result = tasks[index].call();
+                } catch (Exception e) {
+                    onFailure(e);
+                    return;
+                } finally {
+                    synchronized (this) {
+                        runner = null;
+                        if (interrupted) {
+                            // Don't leak it to the next task of the thread.
+                            //noinspection ResultOfMethodCallIgnored
+                            Thread.interrupted();
+                        }
+                    }
+                }
+                onSuccess(index, result);
+            }
+        }
+    }
+}
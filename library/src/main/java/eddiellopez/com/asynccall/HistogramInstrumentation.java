@@ -0,0 +1,142 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregates the timelines of the tasks into histograms, per tag: how long they waited in the
+ * queue, how long they ran, and how long their delivery took once finished.
+ * <p>
+ * Keyed, gathered, batched and cached tasks don't run by themselves, only their deliveries and
+ * outcomes are counted.
+ */
+public final class HistogramInstrumentation implements TaskInstrumentation {
+
+    private final ConcurrentMap<String, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * @param tag A tag.
+     * @return The statistics of the tasks with the tag, or null if none finished yet.
+     */
+    @Nullable
+    public Stats getStats(@NonNull String tag) {
+        return stats.get(tag);
+    }
+
+    /**
+     * @return The statistics of every tag, live.
+     */
+    @NonNull
+    public Map<String, Stats> getAllStats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    @Override
+    public void onEnqueued(@NonNull TaskSpan span) {
+    }
+
+    @Override
+    public void onStarted(@NonNull TaskSpan span) {
+    }
+
+    @Override
+    public void onFinished(@NonNull TaskSpan span) {
+        final Stats tagStats = statsOf(span.getTag());
+        if (span.getOutcome() == TaskSpan.Outcome.CANCELLED) {
+            tagStats.cancelled.incrementAndGet();
+            return;
+        }
+        if (span.getOutcome() == TaskSpan.Outcome.FAILURE) {
+            tagStats.failed.incrementAndGet();
+        }
+        if (!span.hasRun()) {
+            // Shared, gathered, batched or cached: its wait and run aren't its own.
+            return;
+        }
+        if (span.getEnqueuedNanos() != 0) {
+            tagStats.queueWait.record(span.getStartedNanos() - span.getEnqueuedNanos());
+        }
+        tagStats.run.record(span.getFinishedNanos() - span.getStartedNanos());
+    }
+
+    @Override
+    public void onDelivered(@NonNull TaskSpan span) {
+        statsOf(span.getTag()).delivery.record(span.getDeliveredNanos() - span.getFinishedNanos());
+    }
+
+    @NonNull
+    private Stats statsOf(@NonNull String tag) {
+        Stats tagStats = stats.get(tag);
+        if (tagStats == null) {
+            final Stats created = new Stats();
+            tagStats = stats.putIfAbsent(tag, created);
+            if (tagStats == null) {
+                tagStats = created;
+            }
+        }
+        return tagStats;
+    }
+
+    /**
+     * The statistics of the tasks with a tag.
+     */
+    public static final class Stats {
+
+        private final LatencyHistogram queueWait = new LatencyHistogram();
+
+        private final LatencyHistogram run = new LatencyHistogram();
+
+        private final LatencyHistogram delivery = new LatencyHistogram();
+
+        private final AtomicLong failed = new AtomicLong();
+
+        private final AtomicLong cancelled = new AtomicLong();
+
+        Stats() {
+        }
+
+        /**
+         * @return From handing to the executor to running.
+         */
+        @NonNull
+        public LatencyHistogram getQueueWait() {
+            return queueWait;
+        }
+
+        /**
+         * @return From running to finishing, failures included.
+         */
+        @NonNull
+        public LatencyHistogram getRun() {
+            return run;
+        }
+
+        /**
+         * @return From finishing to being delivered, waiting for the UI Thread included.
+         */
+        @NonNull
+        public LatencyHistogram getDelivery() {
+            return delivery;
+        }
+
+        /**
+         * @return The number of tasks that failed.
+         */
+        public long getFailed() {
+            return failed.get();
+        }
+
+        /**
+         * @return The number of tasks cancelled.
+         */
+        public long getCancelled() {
+            return cancelled.get();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.Nullable;
+
+/**
+ * The process wide {@link TaskInstrumentation}.
+ * <p>
+ * Without one, tasks only check a field per step. An instrumentation applies to the tasks
+ * started after it's installed.
+ */
+public final class Instrumentation {
+
+    @Nullable
+    private static volatile TaskInstrumentation installed;
+
+    private Instrumentation() {
+        // no-op, static utilities
+    }
+
+    /**
+     * Installs an instrumentation, replacing the current one.
+     *
+     * @param instrumentation The instrumentation, or null to remove it.
+     */
+    public static void install(@Nullable TaskInstrumentation instrumentation) {
+        installed = instrumentation;
+    }
+
+    /**
+     * @return The installed instrumentation, if any.
+     */
+    @Nullable
+    public static TaskInstrumentation getInstalled() {
+        return installed;
+    }
+}
@@ -0,0 +1,234 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the tasks sharing a key one at a time, in order, and the tasks of different keys in
+ * parallel, on a shared pool.
+ * <p>
+ * No thread is held per key: a key with queued tasks takes a thread of the pool for one task
+ * at a time, and gives it back in between. The queue of a key is lock free, and dropped once
+ * empty.
+ * <p>
+ * If the pool rejects a key, its queued tasks are rejected as well: a {@link Threader} fails
+ * with the {@link RejectedExecutionException}, other tasks are dropped.
+ *
+ * @see #forKey(Object)
+ */
+public final class KeyedSerialExecutor {
+
+    @NonNull
+    private final Executor pool;
+
+    private final ConcurrentMap<Object, KeyQueue> queues = new ConcurrentHashMap<>();
+
+    /**
+     * @param pool The pool running the tasks, the {@link AsyncExecutors#getDefault() default
+     *             executor} for instance.
+     */
+    public KeyedSerialExecutor(@NonNull Executor pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Runs a task after the ones queued under its key.
+     *
+     * @param key  The key, with proper equals and hashCode.
+     * @param task The task.
+     * @throws RejectedExecutionException If the pool rejects the key.
+     */
+    public void execute(@NonNull Object key, @NonNull Runnable task) {
+        while (true) {
+            KeyQueue queue = queues.get(key);
+            if (queue == null) {
+                final KeyQueue created = new KeyQueue(key);
+                queue = queues.putIfAbsent(key, created);
+                if (queue == null) {
+                    queue = created;
+                }
+            }
+            if (queue.offer(task)) {
+                return;
+            }
+            // Dropped while offering, start over with a new queue.
+            queues.remove(key, queue);
+        }
+    }
+
+    /**
+     * An executor of the tasks of a key, to start tasks in, with
+     * {@link Builder#withExecutorService(ExecutorService)}. It shares the pool, it can't be shut
+     * down by itself.
+     *
+     * @param key The key, with proper equals and hashCode.
+     * @return The executor.
+     */
+    @NonNull
+    public ExecutorService forKey(@NonNull Object key) {
+        return new KeyExecutor(key);
+    }
+
+    /**
+     * @return The number of keys with tasks, queued or running.
+     */
+    @VisibleForTesting
+    int activeKeys() {
+        return queues.size();
+    }
+
+    /**
+     * The tasks of a key. Runs in the pool, one task at a time.
+     */
+    private final class KeyQueue implements PrioritizedTask {
+
+        @NonNull
+        private final Object key;
+
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+        // The tasks queued or running, or -1 once dropped. Whoever raises it from zero submits
+        // the queue to the pool, and whoever lowers it to zero gives the turn back.
+        private final AtomicInteger count = new AtomicInteger();
+
+        KeyQueue(@NonNull Object key) {
+            this.key = key;
+        }
+
+        /**
+         * @param task The task.
+         * @return False if the queue was dropped.
+         */
+        boolean offer(@NonNull Runnable task) {
+            // Queued first, there is always a task for each count.
+            tasks.offer(task);
+            while (true) {
+                final int current = count.get();
+                if (current < 0) {
+                    return false;
+                }
+                if (count.compareAndSet(current, current + 1)) {
+                    if (current == 0) {
+                        submit();
+                    }
+                    return true;
+                }
+            }
+        }
+
+        private void submit() {
+            try {
+                pool.execute(this);
+            } catch (RejectedExecutionException e) {
+                reject(e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void run() {
+            final Runnable task = tasks.poll();
+            try {
+                if (task != null) {
+                    task.run();
+                }
+            } finally {
+                if (count.decrementAndGet() > 0) {
+                    // Give other keys a turn before the next task.
+                    try {
+                        pool.execute(this);
+                    } catch (RejectedExecutionException e) {
+                        reject(e);
+                    }
+                } else {
+                    drop();
+                }
+            }
+        }
+
+        @NonNull
+        @Override
+        public Priority getPriority() {
+            final Runnable next = tasks.peek();
+            return next instanceof PrioritizedTask
+                    ? ((PrioritizedTask) next).getPriority()
+                    : Priority.NORMAL;
+        }
+
+        @Override
+        public void reject(@NonNull RejectedExecutionException exception) {
+            // Nobody is left to run the queued tasks.
+            do {
+                final Runnable task = tasks.poll();
+                if (task instanceof PrioritizedTask) {
+                    ((PrioritizedTask) task).reject(exception);
+                }
+            } while (count.decrementAndGet() > 0);
+            drop();
+        }
+
+        // Empty, unless a task came in meanwhile, and took the turn.
+        private void drop() {
+            if (count.compareAndSet(0, -1)) {
+                queues.remove(key, this);
+            }
+        }
+    }
+
+    /**
+     * The executor of a single key.
+     */
+    private final class KeyExecutor extends AbstractExecutorService {
+
+        @NonNull
+        private final Object key;
+
+        KeyExecutor(@NonNull Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            KeyedSerialExecutor.this.execute(key, command);
+        }
+
+        @Override
+        public void shutdown() {
+            // Shared, the pool is shut down by its owner.
+        }
+
+        @NonNull
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded work queue with one FIFO lane per {@link Priority}.
+ * <p>
+ * Taking from the queue empties the higher lanes first. The capacity is shared by all lanes.
+ */
+final class LaneQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final Condition notFull = lock.newCondition();
+
+    // Guarded by lock, indexed by Priority ordinal.
+    private final ArrayDeque<Runnable>[] lanes;
+
+    private final int capacity;
+
+    // Guarded by lock.
+    private int count;
+
+    LaneQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The queue needs some capacity!");
+        }
+        this.capacity = capacity;
+        // No generic arrays in Java, it only ever holds deques of runnables.
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final ArrayDeque<Runnable>[] lanes = new ArrayDeque[Priority.values().length];
+        this.lanes = lanes;
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * @param runnable Any runnable.
+     * @return Its lane, {@link Priority#NORMAL} unless it's a {@link PrioritizedTask}.
+     */
+    @NonNull
+    static Priority priorityOf(@NonNull Runnable runnable) {
+        return runnable instanceof PrioritizedTask
+                ? ((PrioritizedTask) runnable).getPriority()
+                : Priority.NORMAL;
+    }
+
+    @Override
+    public boolean offer(@NonNull Runnable runnable) {
+        lock.lock();
+        try {
+            if (count == capacity) {
+                return false;
+            }
+            enqueue(runnable);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(@NonNull Runnable runnable, long timeout, @NonNull TimeUnit unit)
+            throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(runnable);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(@NonNull Runnable runnable) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == capacity) {
+                notFull.await();
+            }
+            enqueue(runnable);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Nullable
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return count == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Nullable
+    @Override
+    public Runnable poll(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @NonNull
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the oldest task of the lowest non empty lane, if that lane isn't higher than
+     * the one given.
+     *
+     * @param priority The highest lane to take from.
+     * @return The task removed, or null if none.
+     */
+    @Nullable
+    Runnable pollOldestNotAbove(@NonNull Priority priority) {
+        lock.lock();
+        try {
+            for (int i = lanes.length - 1; i >= priority.ordinal(); i--) {
+                final Runnable runnable = lanes[i].pollFirst();
+                if (runnable != null) {
+                    count--;
+                    notFull.signal();
+                    return runnable;
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Nullable
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            for (ArrayDeque<Runnable> lane : lanes) {
+                final Runnable runnable = lane.peekFirst();
+                if (runnable != null) {
+                    return runnable;
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(@Nullable Object o) {
+        if (!(o instanceof Runnable)) {
+            return false;
+        }
+        lock.lock();
+        try {
+            if (lanes[priorityOf((Runnable) o).ordinal()].removeFirstOccurrence(o)) {
+                count--;
+                notFull.signal();
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(@NonNull Collection<? super Runnable> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(@NonNull Collection<? super Runnable> c, int maxElements) {
+        lock.lock();
+        try {
+            int drained = 0;
+            while (drained < maxElements && count > 0) {
+                c.add(dequeue());
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return An iterator over a snapshot of the queue, in the order tasks would be taken.
+     */
+    @NonNull
+    @Override
+    public Iterator<Runnable> iterator() {
+        final List<Runnable> snapshot = new ArrayList<>();
+        lock.lock();
+        try {
+            for (ArrayDeque<Runnable> lane : lanes) {
+                snapshot.addAll(lane);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        final Iterator<Runnable> iterator = snapshot.iterator();
+        return new Iterator<Runnable>() {
+            @Nullable
+            private Runnable last;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Runnable next() {
+                if (!iterator.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = iterator.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                LaneQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    // Guarded by lock.
+    private void enqueue(@NonNull Runnable runnable) {
+        lanes[priorityOf(runnable).ordinal()].addLast(runnable);
+        count++;
+        notEmpty.signal();
+    }
+
+    // Guarded by lock, with count > 0.
+    @NonNull
+    private Runnable dequeue() {
+        for (ArrayDeque<Runnable> lane : lanes) {
+            final Runnable runnable = lane.pollFirst();
+            if (runnable != null) {
+                count--;
+                notFull.signal();
+                return runnable;
+            }
+        }
+        throw new IllegalStateException("Count out of sync!");
+    }
+}
@@ -0,0 +1,114 @@
+package eddiellopez.com.asynccall;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations, for percentiles.
+ * <p>
+ * Durations are counted in log-linear buckets: each power of two is split in eight, so a
+ * percentile is within 12.5% of the exact value. Recording is a couple of atomic increments,
+ * from any thread, and never allocates.
+ */
+public final class LatencyHistogram {
+
+    // Eight buckets per power of two.
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration, in nanoseconds. Negative ones count as zero.
+     */
+    public void record(long nanos) {
+        final long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        totalNanos.addAndGet(value);
+        count.incrementAndGet();
+    }
+
+    /**
+     * @return The number of durations recorded.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @param unit The unit of the result.
+     * @return The mean duration, zero if none was recorded.
+     */
+    public long getMean(TimeUnit unit) {
+        final long recorded = count.get();
+        return recorded == 0 ? 0 : unit.convert(totalNanos.get() / recorded, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Estimates a percentile, from the durations recorded so far. Concurrent recordings may or
+     * may not be counted.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @param unit       The unit of the result.
+     * @return The duration under which the percentile of the recordings falls, zero if none was
+     * recorded.
+     */
+    public long getPercentile(double percentile, TimeUnit unit) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("A percentile goes from 0 to 100!");
+        }
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return unit.convert(upperBoundOf(i), TimeUnit.NANOSECONDS);
+            }
+        }
+        return unit.convert(upperBoundOf(BUCKETS - 1), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Forgets every recording.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return ((shift + 1) << SUB_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int shift = (bucket >>> SUB_BITS) - 1;
+        final long lower = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,131 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An in memory {@link ResultCache}, bounded by number of entries or by total weight.
+ * <p>
+ * When the bound is exceeded, the least recently used entries are evicted. Entries past their
+ * time to live are kept as stale, until evicted, so they can be served while revalidating.
+ */
+public final class LruResultCache implements ResultCache {
+
+    /**
+     * Computes the weight of a cached result, for example its approximate size in bytes.
+     */
+    @FunctionalInterface
+    public interface Weigher {
+        /**
+         * @param key   The key of the task.
+         * @param value The result.
+         * @return The weight, not negative.
+         */
+        int weigh(@NonNull Object key, @Nullable Object value);
+    }
+
+    private final Map<Object, WeightedEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final long maxWeight;
+
+    @NonNull
+    private final Weigher weigher;
+
+    private long weight;
+
+    /**
+     * A cache bounded by number of entries.
+     *
+     * @param maxEntries The maximum number of results cached.
+     */
+    public LruResultCache(int maxEntries) {
+        this(maxEntries, (key, value) -> 1);
+    }
+
+    /**
+     * A cache bounded by weight.
+     *
+     * @param maxWeight The maximum total weight of the results cached.
+     * @param weigher   Computes the weight of each result.
+     */
+    public LruResultCache(long maxWeight, @NonNull Weigher weigher) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("The cache must allow some weight!");
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    @Nullable
+    @Override
+    public synchronized Entry get(@NonNull Object key) {
+        final WeightedEntry entry = entries.get(key);
+        return entry == null ? null : entry.entry;
+    }
+
+    @Override
+    public void put(@NonNull Object key, @Nullable Object value, long ttlMillis) {
+        final int entryWeight = weigher.weigh(key, value);
+        if (entryWeight < 0) {
+            throw new IllegalArgumentException("Negative weight for " + key);
+        }
+        final WeightedEntry entry = new WeightedEntry(new Entry(value, ttlMillis), entryWeight);
+
+        synchronized (this) {
+            final WeightedEntry previous = entries.put(key, entry);
+            if (previous != null) {
+                weight -= previous.weight;
+            }
+            weight += entryWeight;
+            evict();
+        }
+    }
+
+    @Override
+    public synchronized void invalidate(@NonNull Object key) {
+        final WeightedEntry previous = entries.remove(key);
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+    }
+
+    /**
+     * @return The number of results cached.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The total weight of the results cached.
+     */
+    public synchronized long weight() {
+        return weight;
+    }
+
+    // Guarded by this.
+    private void evict() {
+        final Iterator<WeightedEntry> eldest = entries.values().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+        }
+    }
+
+    private static final class WeightedEntry {
+
+        @NonNull
+        final Entry entry;
+
+        final int weight;
+
+        WeightedEntry(@NonNull Entry entry, int weight) {
+            this.entry = entry;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Posts the results and exceptions of the tasks to the UI Thread, or hands them to another
+ * {@link DeliveryTarget}.
+ * <p>
+ * A single process wide instance shares one poster of the {@link Platform}. The posted
+ * deliveries are records taken from a recycled pool, like {@code Message.obtain}, so that a
+ * delivery in the steady state doesn't allocate.
+ */
+final class MainThreadDispatcher {
+
+    private static final int MAX_POOL_SIZE = 50;
+
+    private final Object poolLock = new Object();
+
+    @Nullable
+    private Delivery pool;
+
+    private int poolSize;
+
+    @NonNull
+    private final Executor poster;
+
+    @NonNull
+    private final Platform platform;
+
+    @NonNull
+    private final DeliveryTarget posting;
+
+    @NonNull
+    private final DeliveryTarget batching =
+            delivery -> BatchingDispatcher.getInstance().enqueue(delivery);
+
+    /**
+     * @param poster Runs the deliveries in the UI Thread.
+     */
+    @VisibleForTesting
+    MainThreadDispatcher(@NonNull Executor poster) {
+        this(poster, Platform.get());
+    }
+
+    /**
+     * @param poster   Runs the deliveries in the UI Thread.
+     * @param platform Tells the UI Thread, and its frames.
+     */
+    @VisibleForTesting
+    MainThreadDispatcher(@NonNull Executor poster, @NonNull Platform platform) {
+        this.poster = poster;
+        this.platform = platform;
+        posting = poster::execute;
+    }
+
+    static MainThreadDispatcher getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Posts a runnable to the UI Thread.
+     *
+     * @param runnable The runnable.
+     */
+    void post(@NonNull Runnable runnable) {
+        poster.execute(runnable);
+    }
+
+    /**
+     * Runs a runnable in the UI Thread, with the next frame. Before frame callbacks are
+     * available, it's simply posted.
+     *
+     * @param runnable The runnable.
+     */
+    void postOnNextFrame(@NonNull Runnable runnable) {
+        poster.execute(() -> platform.onNextFrame(runnable));
+    }
+
+    /**
+     * Posts the delivery of a result.
+     *
+     * @param threader The threader delivering.
+     * @param result   The result.
+     * @param batch    Whether to coalesce with other deliveries.
+     */
+    <T> void dispatchResult(@NonNull Threader<T> threader, @Nullable T result, boolean batch) {
+        dispatchResult(threader, result, target(batch));
+    }
+
+    /**
+     * Hands the delivery of a result to a target.
+     *
+     * @param threader The threader delivering.
+     * @param result   The result.
+     * @param target   The delivery target.
+     */
+    <T> void dispatchResult(
+            @NonNull Threader<T> threader,
+            @Nullable T result,
+            @NonNull DeliveryTarget target
+    ) {
+        target.deliver(obtain(threader, result, null));
+    }
+
+    /**
+     * Posts the delivery of an exception.
+     *
+     * @param threader  The threader delivering.
+     * @param exception The exception.
+     * @param batch     Whether to coalesce with other deliveries.
+     */
+    void dispatchFailure(@NonNull Threader<?> threader, @NonNull Exception exception, boolean batch) {
+        dispatchFailure(threader, exception, target(batch));
+    }
+
+    /**
+     * Hands the delivery of an exception to a target.
+     *
+     * @param threader  The threader delivering.
+     * @param exception The exception.
+     * @param target    The delivery target.
+     */
+    void dispatchFailure(
+            @NonNull Threader<?> threader,
+            @NonNull Exception exception,
+            @NonNull DeliveryTarget target
+    ) {
+        target.deliver(obtain(threader, null, exception));
+    }
+
+    @NonNull
+    private DeliveryTarget target(boolean batch) {
+        return batch ? batching : posting;
+    }
+
+    @NonNull
+    @SuppressWarnings("unchecked")
+    private Delivery obtain(
+            @NonNull Threader<?> threader,
+            @Nullable Object result,
+            @Nullable Exception exception
+    ) {
+        Delivery delivery = null;
+        synchronized (poolLock) {
+            if (pool != null) {
+                delivery = pool;
+                pool = delivery.next;
+                delivery.next = null;
+                poolSize--;
+            }
+        }
+        if (delivery == null) {
+            delivery = new Delivery(this);
+        }
+        delivery.threader = (Threader<Object>) threader;
+        delivery.result = result;
+        delivery.exception = exception;
+        return delivery;
+    }
+
+    private void recycle(@NonNull Delivery delivery) {
+        delivery.threader = null;
+        delivery.result = null;
+        delivery.exception = null;
+        delivery.deferred = false;
+        synchronized (poolLock) {
+            if (poolSize < MAX_POOL_SIZE) {
+                delivery.next = pool;
+                pool = delivery;
+                poolSize++;
+            }
+        }
+    }
+
+    /**
+     * A pooled delivery record.
+     */
+    private static final class Delivery implements Runnable {
+
+        @NonNull
+        private final MainThreadDispatcher dispatcher;
+
+        @Nullable
+        Threader<Object> threader;
+
+        @Nullable
+        Object result;
+
+        @Nullable
+        Exception exception;
+
+        @Nullable
+        Delivery next;
+
+        // Whether the delivery was already moved to the next frame, it's moved once at most.
+        boolean deferred;
+
+        Delivery(@NonNull MainThreadDispatcher dispatcher) {
+            this.dispatcher = dispatcher;
+        }
+
+        @Override
+        public void run() {
+            final Platform platform = dispatcher.platform;
+            if (!deferred && threader != null && platform.isMainThread()
+                    && threader.shouldDeferDelivery()) {
+                deferred = true;
+                platform.onNextFrame(this);
+                return;
+            }
+            final Threader<Object> threader = this.threader;
+            final Object result = this.result;
+            final Exception exception = this.exception;
+            // Recycle before delivering, a delivery that throws must not leak the record.
+            dispatcher.recycle(this);
+
+            if (threader == null) {
+                return;
+            }
+            if (exception != null) {
+                threader.deliverFailure(exception);
+            } else {
+                threader.deliverResult(result);
+            }
+        }
+    }
+
+    private static final class Holder {
+        static final MainThreadDispatcher INSTANCE =
+                new MainThreadDispatcher(Platform.get().mainThread(), Platform.get());
+    }
+}
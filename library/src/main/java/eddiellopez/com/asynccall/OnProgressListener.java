@@ -0,0 +1,23 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+
+import java.util.List;
+
+/**
+ * A listener to receive the partial results of a {@link StreamingTask}.
+ *
+ * @param <P> The type of the partial results.
+ */
+@FunctionalInterface
+public interface OnProgressListener<P> {
+    /**
+     * Called in the UI Thread, at most once per frame, with the partial results published since
+     * the previous call, in order. Always called before the final result is delivered.
+     *
+     * @param chunks The partial results, at least one.
+     */
+    @UiThread
+    void onProgress(@NonNull List<P> chunks);
+}
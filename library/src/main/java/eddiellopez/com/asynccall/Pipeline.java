@@ -0,0 +1,118 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A task made of stages: a callable followed by continuations.
+ * <p>
+ * Called as a plain {@link Callable}, it runs all the stages back to back. A {@link Threader}
+ * runs it stage by stage instead, submitting the asynchronous stages back to the executor.
+ *
+ * @param <T> The type of the result of the last stage.
+ */
+final class Pipeline<T> implements Callable<T> {
+
+    @NonNull
+    private final Callable<?> head;
+
+    @NonNull
+    private final Stage[] stages;
+
+    private Pipeline(@NonNull Callable<?> head, @NonNull Stage[] stages) {
+        this.head = head;
+        this.stages = stages;
+    }
+
+    /**
+     * Appends a stage to a task.
+     *
+     * @param task         The task, a plain callable or a pipeline.
+     * @param continuation The next stage.
+     * @param async        Whether the stage is submitted to the executor, rather than run
+     *                     right after the previous one.
+     * @return A new pipeline.
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    static <T, R> Pipeline<R> append(
+            @NonNull Callable<T> task,
+            @NonNull Continuation<? super T, ? extends R> continuation,
+            boolean async
+    ) {
+        final Callable<?> head;
+        final Stage[] previous;
+        if (task instanceof Pipeline) {
+            head = ((Pipeline<?>) task).head;
+            previous = ((Pipeline<?>) task).stages;
+        } else {
+            head = task;
+            previous = new Stage[0];
+        }
+        final Stage[] stages = new Stage[previous.length + 1];
+        System.arraycopy(previous, 0, stages, 0, previous.length);
+        stages[previous.length] = new Stage((Continuation<Object, Object>) continuation, async);
+        return new Pipeline<>(head, stages);
+    }
+
+    /**
+     * @return The initial callable.
+     */
+    @NonNull
+    Callable<?> head() {
+        return head;
+    }
+
+    /**
+     * @return The number of stages, including the initial callable.
+     */
+    int size() {
+        return stages.length + 1;
+    }
+
+    /**
+     * @param index The stage.
+     * @return Whether the stage should be submitted to the executor.
+     */
+    boolean isAsync(int index) {
+        return index > 0 && stages[index - 1].async;
+    }
+
+    /**
+     * Runs a single stage.
+     *
+     * @param index The stage.
+     * @param input The result of the previous stage, ignored by the first.
+     * @return The result of the stage.
+     * @throws Exception As thrown by the stage.
+     */
+    @Nullable
+    Object apply(int index, @Nullable Object input) throws Exception {
+        return index == 0 ? head.call() : stages[index - 1].continuation.apply(input);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T call() throws Exception {
+        Object value = null;
+        for (int i = 0; i < size(); i++) {
+            value = apply(i, value);
+        }
+        return (T) value;
+    }
+
+    private static final class Stage {
+
+        @NonNull
+        final Continuation<Object, Object> continuation;
+
+        final boolean async;
+
+        Stage(@NonNull Continuation<Object, Object> continuation, boolean async) {
+            this.continuation = continuation;
+            this.async = async;
+        }
+    }
+}
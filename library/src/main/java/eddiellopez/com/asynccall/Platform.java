@@ -0,0 +1,141 @@
+package eddiellopez.com.asynccall;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * What the library needs from the platform it runs on.
+ * <p>
+ * On Android, the UI Thread is the main looper thread. On a plain JVM there is no UI Thread,
+ * results are delivered in the worker threads. Only the implementation for the current platform
+ * is loaded, so the Android classes aren't needed elsewhere.
+ */
+abstract class Platform {
+
+    /**
+     * @return The platform the library runs on.
+     */
+    @NonNull
+    static Platform get() {
+        return Holder.PLATFORM;
+    }
+
+    /**
+     * @return True on Android.
+     */
+    abstract boolean isAndroid();
+
+    /**
+     * @return True if called in the UI Thread.
+     */
+    abstract boolean isMainThread();
+
+    /**
+     * @return Runs runnables in the UI Thread, in order.
+     */
+    @NonNull
+    abstract Executor mainThread();
+
+    /**
+     * Runs a runnable with the next frame, if frames are known. Called in the UI Thread.
+     *
+     * @param runnable The runnable.
+     */
+    abstract void onNextFrame(@NonNull Runnable runnable);
+
+    /**
+     * @param apiLevel An Android API level.
+     * @return True if the APIs of the level are available. Always true outside Android.
+     */
+    abstract boolean isApiAvailable(int apiLevel);
+
+    private static final class Holder {
+        static final Platform PLATFORM = hasMainLooper() ? new AndroidPlatform() : new JvmPlatform();
+
+        // True under Robolectric as well. Elsewhere the class is missing, or a stub without one.
+        private static boolean hasMainLooper() {
+            try {
+                return Class.forName("android.os.Looper")
+                        .getMethod("getMainLooper")
+                        .invoke(null) != null;
+            } catch (Exception | LinkageError e) {
+                return false;
+            }
+        }
+    }
+
+    private static final class AndroidPlatform extends Platform {
+
+        private final Executor mainThread = new Handler(Looper.getMainLooper())::post;
+
+        @Override
+        boolean isAndroid() {
+            return true;
+        }
+
+        @Override
+        boolean isMainThread() {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                return Looper.getMainLooper().isCurrentThread();
+            } else {
+                return Looper.getMainLooper().getThread() == Thread.currentThread();
+            }
+        }
+
+        @NonNull
+        @Override
+        Executor mainThread() {
+            return mainThread;
+        }
+
+        @Override
+        void onNextFrame(@NonNull Runnable runnable) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                Choreographer.getInstance().postFrameCallback(frameTimeNanos -> runnable.run());
+            } else {
+                runnable.run();
+            }
+        }
+
+        @Override
+        boolean isApiAvailable(int apiLevel) {
+            return Build.VERSION.SDK_INT >= apiLevel;
+        }
+    }
+
+    private static final class JvmPlatform extends Platform {
+
+        @Override
+        boolean isAndroid() {
+            return false;
+        }
+
+        @Override
+        boolean isMainThread() {
+            return false;
+        }
+
+        @NonNull
+        @Override
+        Executor mainThread() {
+            // Nothing is dispatched to a UI Thread that doesn't exist, run in place.
+            return Runnable::run;
+        }
+
+        @Override
+        void onNextFrame(@NonNull Runnable runnable) {
+            runnable.run();
+        }
+
+        @Override
+        boolean isApiAvailable(int apiLevel) {
+            return true;
+        }
+    }
+}
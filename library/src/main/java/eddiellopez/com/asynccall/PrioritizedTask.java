@@ -0,0 +1,24 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A task that knows its lane in the default executor, and how to fail when rejected.
+ */
+interface PrioritizedTask extends Runnable {
+
+    /**
+     * @return The lane of the task.
+     */
+    @NonNull
+    Priority getPriority();
+
+    /**
+     * Fails the task, which won't run.
+     *
+     * @param exception The reason.
+     */
+    void reject(@NonNull RejectedExecutionException exception);
+}
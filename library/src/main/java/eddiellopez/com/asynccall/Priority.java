@@ -0,0 +1,22 @@
+package eddiellopez.com.asynccall;
+
+/**
+ * The lane of a task in the default executor. Queued tasks of a higher lane always run first;
+ * tasks of the same lane run in the order they were submitted.
+ *
+ * @see Builder#priority(Priority)
+ */
+public enum Priority {
+    /**
+     * Tasks the UI is waiting on, such as the content of the current screen.
+     */
+    UI_CRITICAL,
+    /**
+     * The default.
+     */
+    NORMAL,
+    /**
+     * Tasks nobody is waiting on, such as prefetching or cleanup.
+     */
+    BACKGROUND
+}
@@ -0,0 +1,96 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread pool sized to the device, with a bounded {@link LaneQueue}.
+ * <p>
+ * When the queue is full, the {@link RejectionPolicy} applies.
+ */
+final class PriorityExecutor extends ThreadPoolExecutor {
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    @NonNull
+    private final LaneQueue queue;
+
+    private volatile RejectionPolicy rejectionPolicy = RejectionPolicy.FAIL_FAST;
+
+    /**
+     * @param threads  The number of threads, at most.
+     * @param capacity The capacity of the queue.
+     */
+    @VisibleForTesting
+    PriorityExecutor(int threads, int capacity) {
+        this(threads, new LaneQueue(capacity));
+    }
+
+    private PriorityExecutor(int threads, @NonNull LaneQueue queue) {
+        super(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue, new PoolThreadFactory());
+        this.queue = queue;
+        // Idle devices shouldn't keep threads around.
+        allowCoreThreadTimeOut(true);
+        setRejectedExecutionHandler(new PolicyHandler());
+    }
+
+    void setRejectionPolicy(@NonNull RejectionPolicy rejectionPolicy) {
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    private final class PolicyHandler implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            if (isShutdown()) {
+                throw new RejectedExecutionException("The executor is shut down");
+            }
+
+            switch (rejectionPolicy) {
+                case CALLER_RUNS:
+                    runnable.run();
+                    break;
+                case DROP_OLDEST:
+                    final Runnable dropped = queue.pollOldestNotAbove(LaneQueue.priorityOf(runnable));
+                    if (dropped == null) {
+                        throw new RejectedExecutionException("Queue full of higher priority tasks");
+                    }
+                    reject(dropped);
+                    execute(runnable);
+                    break;
+                case FAIL_FAST:
+                default:
+                    throw new RejectedExecutionException("Queue full");
+            }
+        }
+
+        private void reject(@Nullable Runnable dropped) {
+            if (dropped instanceof PrioritizedTask) {
+                ((PrioritizedTask) dropped).reject(
+                        new RejectedExecutionException("Dropped for a newer task"));
+            }
+        }
+    }
+
+    private static final class PoolThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            final Thread thread = new Thread(runnable, "AsyncCall #" + count.incrementAndGet());
+            // Don't keep the process alive, nor compete with the UI Thread.
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
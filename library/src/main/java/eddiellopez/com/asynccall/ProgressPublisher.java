@@ -0,0 +1,19 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Takes the partial results of a {@link StreamingTask}.
+ *
+ * @param <P> The type of the partial results.
+ */
+public interface ProgressPublisher<P> {
+    /**
+     * Publishes a partial result. It doesn't wait for it to be delivered.
+     *
+     * @param chunk The partial result.
+     */
+    @WorkerThread
+    void publish(@Nullable P chunk);
+}
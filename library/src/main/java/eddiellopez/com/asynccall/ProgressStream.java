@@ -0,0 +1,140 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a {@link StreamingTask}, carrying its partial results to the progress listener.
+ * <p>
+ * Delivering to a target, the partial results are queued and drained by a single pending flush.
+ * In the UI Thread, flushes run with the frames, so a task publishing faster than the screen
+ * refreshes causes a single update per frame. They follow the lifecycle rules of the final
+ * result: dropped while the owner is stopped, unless sticky, in which case they are delivered
+ * on start.
+ *
+ * @param <T> The type of the final result.
+ * @param <P> The type of the partial results.
+ */
+final class ProgressStream<T, P> implements Callable<T>, ProgressPublisher<P> {
+
+    @NonNull
+    private final StreamingTask<T, P> task;
+
+    @NonNull
+    private final OnProgressListener<P> listener;
+
+    private final Object lock = new Object();
+
+    // Guarded by lock.
+    @NonNull
+    private ArrayList<P> pending = new ArrayList<>();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final Runnable flush = this::flush;
+
+    @Nullable
+    private volatile Threader<?> threader;
+
+    @Nullable
+    private volatile DeliveryTarget flushes;
+
+    private volatile boolean sticky;
+
+    private volatile boolean closed;
+
+    ProgressStream(@NonNull StreamingTask<T, P> task, @NonNull OnProgressListener<P> listener) {
+        this.task = task;
+        this.listener = listener;
+    }
+
+    /**
+     * Binds the stream to the threader delivering its final result.
+     *
+     * @param threader The threader.
+     * @param flushes  Runs the flushes, or null to deliver in the publishing thread.
+     * @param sticky   Whether to keep the partial results while the owner is stopped.
+     */
+    void bind(@NonNull Threader<?> threader, @Nullable DeliveryTarget flushes, boolean sticky) {
+        this.flushes = flushes;
+        this.sticky = sticky;
+        this.threader = threader;
+    }
+
+    @Override
+    public T call() throws Exception {
+        return task.call(this);
+    }
+
+    @Override
+    public void publish(@Nullable P chunk) {
+        final Threader<?> threader = this.threader;
+        if (closed || threader == null) {
+            return;
+        }
+        final DeliveryTarget flushes = this.flushes;
+        if (flushes == null) {
+            if (threader.isDelivering()) {
+                listener.onProgress(Collections.singletonList(chunk));
+            }
+            return;
+        }
+
+        synchronized (lock) {
+            pending.add(chunk);
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            flushes.deliver(flush);
+        }
+    }
+
+    /**
+     * Delivers the partial results queued so far, if the owner allows.
+     */
+    @UiThread
+    void flush() {
+        scheduled.set(false);
+        final Threader<?> threader = this.threader;
+        if (closed || threader == null) {
+            return;
+        }
+        if (!threader.isDelivering()) {
+            if (!sticky) {
+                // Dropped, nobody is watching.
+                clear();
+            }
+            return;
+        }
+
+        final List<P> chunks;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            chunks = pending;
+            pending = new ArrayList<>();
+        }
+        listener.onProgress(Collections.unmodifiableList(chunks));
+    }
+
+    /**
+     * Drops the partial results not delivered yet, and any published later.
+     */
+    void close() {
+        closed = true;
+        clear();
+    }
+
+    private void clear() {
+        synchronized (lock) {
+            pending.clear();
+        }
+    }
+}
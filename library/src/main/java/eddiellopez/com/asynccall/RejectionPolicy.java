@@ -0,0 +1,26 @@
+package eddiellopez.com.asynccall;
+
+/**
+ * What the default executor does with a task when its queue is full.
+ * <p>
+ * A task that can't run fails with a {@link java.util.concurrent.RejectedExecutionException},
+ * delivered to its {@link OnExceptionHandler}.
+ *
+ * @see AsyncExecutors#setRejectionPolicy(RejectionPolicy)
+ */
+public enum RejectionPolicy {
+    /**
+     * Runs the task in the thread starting it, which slows down whoever is flooding the queue.
+     * Note that may well be the UI Thread.
+     */
+    CALLER_RUNS,
+    /**
+     * Drops the oldest queued task of the lowest lane, if not higher than the new task's,
+     * to make room for the new task. Otherwise, the new task fails.
+     */
+    DROP_OLDEST,
+    /**
+     * Fails the new task. The default.
+     */
+    FAIL_FAST
+}
@@ -0,0 +1,81 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cache of task results, checked before a task is submitted to the executor.
+ * <p>
+ * Results are identified by the key of the task. A fresh hit is delivered right away, without
+ * running the task. Implementations must be thread safe.
+ *
+ * @see Builder#cache(ResultCache, long, java.util.concurrent.TimeUnit)
+ * @see LruResultCache
+ */
+public interface ResultCache {
+
+    /**
+     * Looks up a result.
+     *
+     * @param key The key of the task.
+     * @return The cached entry, fresh or stale, or null if none.
+     */
+    @Nullable
+    Entry get(@NonNull Object key);
+
+    /**
+     * Stores a result.
+     *
+     * @param key       The key of the task.
+     * @param value     The result.
+     * @param ttlMillis How long the result stays fresh, in milliseconds.
+     */
+    void put(@NonNull Object key, @Nullable Object value, long ttlMillis);
+
+    /**
+     * Removes a result, if cached.
+     *
+     * @param key The key of the task.
+     */
+    void invalidate(@NonNull Object key);
+
+    /**
+     * A cached result.
+     */
+    final class Entry {
+
+        @Nullable
+        private final Object value;
+
+        private final long expiresAtNanos;
+
+        /**
+         * @param value     The result.
+         * @param ttlMillis How long the result stays fresh, from now, in milliseconds.
+         */
+        public Entry(@Nullable Object value, long ttlMillis) {
+            this.value = value;
+            final long now = System.nanoTime();
+            final long ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMillis));
+            // Clamped, a longer time to live is fresh for good.
+            this.expiresAtNanos = now + Math.min(ttlNanos, Long.MAX_VALUE / 2);
+        }
+
+        /**
+         * @return The result.
+         */
+        @Nullable
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * @return True until the time to live elapses.
+         */
+        public boolean isFresh() {
+            return expiresAtNanos - System.nanoTime() > 0;
+        }
+    }
+}
@@ -1,12 +1,9 @@
 package eddiellopez.com.asynccall;
 
-import android.os.Build;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.LifecycleOwner;
 
-import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 
@@ -26,17 +23,27 @@ class ResultThreader<T> extends Threader<T> {
             @Nullable LifecycleOwner lifecycleOwner,
             @NonNull Callable<T> callable,
             @Nullable OnConsumableResultListener<T> onConsumableResultListener
+    ) {
+        this(executor, onExceptionHandler, lifecycleOwner, callable, onConsumableResultListener,
+                new TaskOptions());
+    }
+
+    ResultThreader(
+            @NonNull ExecutorService executor,
+            @Nullable OnExceptionHandler onExceptionHandler,
+            @Nullable LifecycleOwner lifecycleOwner,
+            @NonNull Callable<T> callable,
+            @Nullable OnConsumableResultListener<T> onConsumableResultListener,
+            @NonNull TaskOptions options
     ) {
         super(executor, onExceptionHandler, lifecycleOwner, (result) -> {
             if (onConsumableResultListener != null) {
                 onConsumableResultListener.onResult(result);
             }
-        });
+        }, options);
 
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-            Objects.requireNonNull(callable,
-                    "Threader cannot be constructed without a callable task!");
-        } else {
+        //noinspection ConstantConditions
+        if (callable == null) {
             throw new NullPointerException("Threader cannot be constructed without a callable task!");
         }
         this.callable = callable;
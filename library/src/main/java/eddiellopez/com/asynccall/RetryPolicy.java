@@ -0,0 +1,146 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When and how soon a failed task runs again.
+ * <p>
+ * The delay grows exponentially with each attempt, up to a maximum, and is randomly shortened
+ * by up to a jitter fraction, so that tasks failing together don't retry together. Waiting
+ * happens in the shared timer, never in a worker thread. Policies are immutable.
+ *
+ * @see Builder#retry(RetryPolicy)
+ */
+public final class RetryPolicy {
+
+    /**
+     * Decides whether an exception is worth retrying.
+     */
+    @FunctionalInterface
+    public interface Condition {
+        /**
+         * @param exception The exception thrown by the last attempt.
+         * @return True to retry.
+         */
+        boolean shouldRetry(@NonNull Exception exception);
+    }
+
+    private static final Random RANDOM = new Random();
+
+    private final int maxAttempts;
+
+    private final long initialDelayMillis;
+
+    private final double multiplier;
+
+    private final long maxDelayMillis;
+
+    private final double jitter;
+
+    @NonNull
+    private final Condition condition;
+
+    private RetryPolicy(
+            int maxAttempts,
+            long initialDelayMillis,
+            double multiplier,
+            long maxDelayMillis,
+            double jitter,
+            @NonNull Condition condition
+    ) {
+        this.maxAttempts = maxAttempts;
+        this.initialDelayMillis = initialDelayMillis;
+        this.multiplier = multiplier;
+        this.maxDelayMillis = maxDelayMillis;
+        this.jitter = jitter;
+        this.condition = condition;
+    }
+
+    /**
+     * A policy doubling the delay after each attempt, with a jitter of half the delay, retrying
+     * any exception. The delay is at most a minute.
+     *
+     * @param maxAttempts  The maximum number of attempts, the first one included.
+     * @param initialDelay The delay before the second attempt.
+     * @param unit         The unit of the delay.
+     * @return The policy.
+     */
+    @NonNull
+    public static RetryPolicy exponential(int maxAttempts, long initialDelay, @NonNull TimeUnit unit) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one attempt is needed!");
+        }
+        return new RetryPolicy(maxAttempts, Math.max(0, unit.toMillis(initialDelay)), 2,
+                TimeUnit.MINUTES.toMillis(1), 0.5, exception -> true);
+    }
+
+    /**
+     * @param multiplier The factor applied to the delay after each attempt, at least 1.
+     * @return A copy of this policy, with the multiplier.
+     */
+    @NonNull
+    public RetryPolicy withMultiplier(double multiplier) {
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("The delay can't shrink!");
+        }
+        return new RetryPolicy(maxAttempts, initialDelayMillis, multiplier, maxDelayMillis, jitter,
+                condition);
+    }
+
+    /**
+     * @param maxDelay The maximum delay between attempts.
+     * @param unit     The unit of the delay.
+     * @return A copy of this policy, with the maximum delay.
+     */
+    @NonNull
+    public RetryPolicy withMaxDelay(long maxDelay, @NonNull TimeUnit unit) {
+        return new RetryPolicy(maxAttempts, initialDelayMillis, multiplier,
+                Math.max(0, unit.toMillis(maxDelay)), jitter, condition);
+    }
+
+    /**
+     * @param jitter The fraction of the delay that is randomized, from 0 to 1.
+     * @return A copy of this policy, with the jitter.
+     */
+    @NonNull
+    public RetryPolicy withJitter(double jitter) {
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("The jitter is a fraction of the delay!");
+        }
+        return new RetryPolicy(maxAttempts, initialDelayMillis, multiplier, maxDelayMillis, jitter,
+                condition);
+    }
+
+    /**
+     * @param condition Decides which exceptions are retried.
+     * @return A copy of this policy, with the condition.
+     */
+    @NonNull
+    public RetryPolicy retryIf(@NonNull Condition condition) {
+        return new RetryPolicy(maxAttempts, initialDelayMillis, multiplier, maxDelayMillis, jitter,
+                condition);
+    }
+
+    /**
+     * @param exception The exception thrown by the last attempt.
+     * @param attempts  The number of attempts made so far.
+     * @return True if another attempt should follow.
+     */
+    boolean shouldRetry(@NonNull Exception exception, int attempts) {
+        return attempts < maxAttempts && condition.shouldRetry(exception);
+    }
+
+    /**
+     * @param attempts The number of attempts made so far, at least one.
+     * @return The delay before the next attempt, in milliseconds.
+     */
+    long delayMillis(int attempts) {
+        final double exponential = initialDelayMillis * Math.pow(multiplier, attempts - 1);
+        final double capped = Math.min(exponential, maxDelayMillis);
+        // Random is thread safe.
+        return Math.round(capped * (1 - jitter * RANDOM.nextDouble()));
+    }
+}
@@ -0,0 +1,87 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The timer shared by every task, for deadlines and delays.
+ * <p>
+ * A single thread serves all of them, so the actions scheduled must be short: they hand work
+ * over to an executor or to the UI Thread, rather than doing it.
+ */
+final class Scheduler {
+
+    /**
+     * The time, and the delays, of a task. Replaced in tests.
+     */
+    interface Timer {
+        /**
+         * @return The current time, as {@link System#nanoTime()}.
+         */
+        long nanoTime();
+
+        /**
+         * Runs an action after a delay.
+         *
+         * @param action     The action, short.
+         * @param delayNanos The delay, in nanoseconds.
+         * @return A future to cancel the action.
+         */
+        @NonNull
+        Future<?> schedule(@NonNull Runnable action, long delayNanos);
+    }
+
+    /**
+     * The system clock, and the shared timer.
+     */
+    static final Timer SYSTEM = new Timer() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @NonNull
+        @Override
+        public Future<?> schedule(@NonNull Runnable action, long delayNanos) {
+            return Scheduler.schedule(action, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    };
+
+    private Scheduler() {
+        // no-op, static utilities
+    }
+
+    /**
+     * Runs an action after a delay.
+     *
+     * @param action The action, short.
+     * @param delay  The delay.
+     * @param unit   The unit of the delay.
+     * @return A future to cancel the action.
+     */
+    @NonNull
+    static ScheduledFuture<?> schedule(@NonNull Runnable action, long delay, @NonNull TimeUnit unit) {
+        return Holder.TIMER.schedule(action, delay, unit);
+    }
+
+    private static final class Holder {
+        static final ScheduledThreadPoolExecutor TIMER = create();
+
+        private static ScheduledThreadPoolExecutor create() {
+            final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+                final Thread thread = new Thread(runnable, "AsyncCall timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            if (Platform.get().isApiAvailable(21)) {
+                // Most deadlines are cancelled, don't keep them queued until they expire.
+                timer.setRemoveOnCancelPolicy(true);
+            }
+            return timer;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * A single execution of a task, shared by the threaders started with the same key while it is
+ * in flight. The outcome is fanned out to every threader attached.
+ *
+ * @param <T> The type of the result.
+ * @see Builder#key(Object)
+ */
+final class SharedCall<T> implements PrioritizedTask, DelegatedCall<T> {
+
+    private static final ConcurrentMap<Object, SharedCall<?>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    @NonNull
+    private final Object key;
+
+    @NonNull
+    private final Callable<T> callable;
+
+    @NonNull
+    private final Executor executor;
+
+    // Guarded by this.
+    private final List<Threader<T>> threaders = new ArrayList<>(2);
+
+    // Guarded by this. Once closed, no threader can attach.
+    private boolean closed;
+
+    // Guarded by this.
+    @Nullable
+    private Thread runner;
+
+    @NonNull
+    private final Priority priority;
+
+    private SharedCall(
+            @NonNull Object key,
+            @NonNull Callable<T> callable,
+            @NonNull Executor executor,
+            @NonNull Priority priority
+    ) {
+        this.key = key;
+        this.callable = callable;
+        this.executor = executor;
+        this.priority = priority;
+    }
+
+    /**
+     * Attaches a threader to the call in flight under the key, or submits a new call.
+     *
+     * @param key      The key.
+     * @param threader The threader.
+     * @param callable The task, used only when no call is in flight.
+     * @param executor The executor for a new call.
+     */
+    static <T> void join(
+            @NonNull Object key,
+            @NonNull Threader<T> threader,
+            @NonNull Callable<T> callable,
+            @NonNull Executor executor
+    ) {
+        while (true) {
+            @SuppressWarnings("unchecked")
+            final SharedCall<T> inFlight = (SharedCall<T>) IN_FLIGHT.get(key);
+            if (inFlight != null) {
+                if (inFlight.attach(threader)) {
+                    return;
+                }
+                // Finishing right now, it's too late to receive its result.
+                IN_FLIGHT.remove(key, inFlight);
+                continue;
+            }
+
+            final SharedCall<T> call =
+                    new SharedCall<>(key, callable, executor, threader.getPriority());
+            call.attach(threader);
+            if (IN_FLIGHT.putIfAbsent(key, call) == null) {
+                try {
+                    executor.execute(call);
+                } catch (RejectedExecutionException e) {
+                    call.reject(e);
+                }
+                return;
+            }
+        }
+    }
+
+    @VisibleForTesting
+    static boolean isInFlight(@NonNull Object key) {
+        return IN_FLIGHT.containsKey(key);
+    }
+
+    private synchronized boolean attach(@NonNull Threader<T> threader) {
+        if (closed) {
+            return false;
+        }
+        threaders.add(threader);
+        threader.attach(this);
+        return true;
+    }
+
+    /**
+     * Detaches a cancelled threader. The call is cancelled when no threader is left.
+     *
+     * @param threader     The threader.
+     * @param mayInterrupt Whether the thread running the call may be interrupted.
+     */
+    @Override
+    public void leave(@NonNull Threader<T> threader, boolean mayInterrupt) {
+        synchronized (this) {
+            threaders.remove(threader);
+            if (closed || !threaders.isEmpty()) {
+                return;
+            }
+            closed = true;
+            if (mayInterrupt && runner != null) {
+                runner.interrupt();
+            }
+        }
+        IN_FLIGHT.remove(key, this);
+        if (executor instanceof ThreadPoolExecutor) {
+            ((ThreadPoolExecutor) executor).remove(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        synchronized (this) {
+            if (closed) {
+                // Cancelled while queued.
+                return;
+            }
+            runner = Thread.currentThread();
+        }
+
+        T result = null;
+        Exception failure = null;
+        boolean thrown = true;
+        try {
+            result = callable.call();
+            thrown = false;
+        } catch (Exception e) {
+            failure = e;
+            thrown = false;
+        } finally {
+            if (thrown) {
+                // An Error, nobody is completed with it. At least the key is free again.
+                synchronized (this) {
+                    runner = null;
+                    closed = true;
+                }
+                IN_FLIGHT.remove(key, this);
+            }
+        }
+        complete(result, failure);
+    }
+
+    @NonNull
+    @Override
+    public Priority getPriority() {
+        return priority;
+    }
+
+    @Override
+    public void reject(@NonNull RejectedExecutionException exception) {
+        complete(null, exception);
+    }
+
+    private void complete(@Nullable T result, @Nullable Exception failure) {
+        final List<Threader<T>> attached;
+        synchronized (this) {
+            if (closed) {
+                if (runner == Thread.currentThread()) {
+                    // Cancelled while running, clear an interrupt meant for the call.
+                    //noinspection ResultOfMethodCallIgnored
+                    Thread.interrupted();
+                }
+                runner = null;
+                return;
+            }
+            runner = null;
+            closed = true;
+            attached = new ArrayList<>(threaders);
+        }
+        IN_FLIGHT.remove(key, this);
+
+        for (Threader<T> threader : attached) {
+            threader.completeShared(result, failure);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package eddiellopez.com.asynccall;
+
+import static androidx.lifecycle.Lifecycle.Event.ON_DESTROY;
+import static androidx.lifecycle.Lifecycle.Event.ON_START;
+import static androidx.lifecycle.Lifecycle.Event.ON_STOP;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.OnLifecycleEvent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pulls values from a source as they are requested, for a single subscriber.
+ * <p>
+ * A single drain loop, in the executor, pulls while there is demand, and leaves the executor
+ * when there is none, or the owner is stopped. Requests made meanwhile are picked up by the
+ * running loop, or submit a new one.
+ *
+ * @param <T> The type of the values.
+ * @see AsyncFlow#from(AsyncFlow.Source, Executor, LifecycleOwner)
+ */
+final class SourceSubscription<T> implements AsyncFlow.Subscription, Runnable, LifecycleObserver {
+
+    /**
+     * A subscription with nothing to request.
+     */
+    static final AsyncFlow.Subscription EMPTY = new AsyncFlow.Subscription() {
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    };
+
+    @NonNull
+    private final AsyncFlow.Source<T> source;
+
+    @NonNull
+    private final AsyncFlow.Subscriber<? super T> subscriber;
+
+    @NonNull
+    private final Executor executor;
+
+    @Nullable
+    private final LifecycleOwner owner;
+
+    private final boolean onUiThread;
+
+    private final AtomicLong requested = new AtomicLong();
+
+    // The number of drain requests not seen yet by the loop. Only the first one submits it.
+    private final AtomicInteger pendingDrains = new AtomicInteger();
+
+    private volatile boolean paused;
+
+    private volatile boolean cancelled;
+
+    @Nullable
+    private volatile Throwable failure;
+
+    // Only touched by the drain loop.
+    private boolean done;
+
+    /**
+     * @param source     The source.
+     * @param subscriber The subscriber.
+     * @param executor   The executor running the drain loop.
+     * @param owner      The lifecycle owner pausing the demand, if any.
+     * @param onUiThread Whether to call the subscriber in the UI Thread, otherwise in the worker.
+     */
+    SourceSubscription(
+            @NonNull AsyncFlow.Source<T> source,
+            @NonNull AsyncFlow.Subscriber<? super T> subscriber,
+            @NonNull Executor executor,
+            @Nullable LifecycleOwner owner,
+            boolean onUiThread
+    ) {
+        this.source = source;
+        this.subscriber = subscriber;
+        this.executor = executor;
+        this.owner = owner;
+        this.onUiThread = onUiThread;
+    }
+
+    /**
+     * Observes the owner and hands the subscription to the subscriber.
+     */
+    void start() {
+        if (owner != null) {
+            // Paused until the owner is started, observing dispatches ON_START if it already is.
+            paused = true;
+            owner.getLifecycle().addObserver(this);
+        }
+        subscriber.onSubscribe(this);
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            failure = new IllegalArgumentException("Only a positive number can be requested!");
+        } else {
+            long current;
+            long next;
+            do {
+                current = requested.get();
+                next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            } while (!requested.compareAndSet(current, next));
+        }
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        stopObservingLifecycle();
+        if (executor instanceof ThreadPoolExecutor) {
+            ((ThreadPoolExecutor) executor).remove(this);
+        }
+    }
+
+    private void drain() {
+        if (pendingDrains.getAndIncrement() != 0) {
+            // The running loop will see it.
+            return;
+        }
+        try {
+            executor.execute(this);
+        } catch (RejectedExecutionException e) {
+            // Nothing else runs the loop, it can only fail here.
+            failure = e;
+            run();
+        }
+    }
+
+    /**
+     * The drain loop. Not to be called directly.
+     */
+    @Override
+    public void run() {
+        int missed = 1;
+        while (true) {
+            if (cancelled || done) {
+                return;
+            }
+            final long demand = requested.get();
+            long emitted = 0;
+            while (emitted != demand && !paused && !cancelled) {
+                if (failure != null) {
+                    break;
+                }
+                final T item;
+                try {
+                    if (!source.hasNext()) {
+                        finish(null);
+                        return;
+                    }
+                    item = source.next();
+                } catch (Exception e) {
+                    finish(e);
+                    return;
+                }
+                signalNext(item);
+                emitted++;
+            }
+            final Throwable failure = this.failure;
+            if (failure != null && !cancelled) {
+                finish(failure);
+                return;
+            }
+
+            if (emitted != 0 && demand != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+            missed = pendingDrains.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private void signalNext(@Nullable T item) {
+        if (onUiThread) {
+            MainThreadDispatcher.getInstance().post(() -> {
+                if (!cancelled) {
+                    subscriber.onNext(item);
+                }
+            });
+        } else {
+            subscriber.onNext(item);
+        }
+    }
+
+    private void finish(@Nullable Throwable failure) {
+        done = true;
+        stopObservingLifecycle();
+        final Runnable signal = () -> {
+            if (cancelled) {
+                return;
+            }
+            if (failure == null) {
+                subscriber.onComplete();
+            } else {
+                subscriber.onError(failure);
+            }
+        };
+        if (onUiThread) {
+            MainThreadDispatcher.getInstance().post(signal);
+        } else {
+            signal.run();
+        }
+    }
+
+    private void stopObservingLifecycle() {
+        if (owner != null) {
+            owner.getLifecycle().removeObserver(this);
+        }
+    }
+
+    @OnLifecycleEvent(ON_STOP)
+    void onStopped() {
+        // Stop pulling, nobody is watching.
+        paused = true;
+    }
+
+    @OnLifecycleEvent(ON_START)
+    void onStarted() {
+        paused = false;
+        // Resume with the pending demand.
+        drain();
+    }
+
+    @OnLifecycleEvent(ON_DESTROY)
+    void onDestroyed() {
+        cancel();
+    }
+}
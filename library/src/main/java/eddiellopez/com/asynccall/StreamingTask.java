@@ -0,0 +1,24 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+/**
+ * A task that publishes partial results while it runs, before returning the final one.
+ *
+ * @param <T> The type of the final result.
+ * @param <P> The type of the partial results.
+ * @see Builder#async(StreamingTask, OnProgressListener)
+ */
+@FunctionalInterface
+public interface StreamingTask<T, P> {
+    /**
+     * Called in a worker thread.
+     *
+     * @param publisher Takes the partial results, as soon as they are ready.
+     * @return The final result.
+     * @throws Exception Any exception, delivered to the exception handler of the task.
+     */
+    @WorkerThread
+    T call(@NonNull ProgressPublisher<P> publisher) throws Exception;
+}
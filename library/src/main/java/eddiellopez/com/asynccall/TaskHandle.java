@@ -0,0 +1,28 @@
+package eddiellopez.com.asynccall;
+
+/**
+ * A handle to a started task, returned by {@link Builder#start()}.
+ * <p>
+ * Cancelling a task that is still queued takes it out of the executor. Cancelling a running task
+ * drops its result, and may interrupt the thread running it. A cancelled task delivers nothing.
+ */
+public interface TaskHandle {
+
+    /**
+     * Attempts to cancel the task.
+     *
+     * @param mayInterrupt Whether the thread running the task should be interrupted.
+     * @return False if the task couldn't be cancelled, because it was already done or cancelled.
+     */
+    boolean cancel(boolean mayInterrupt);
+
+    /**
+     * @return True if the task was cancelled before finishing.
+     */
+    boolean isCancelled();
+
+    /**
+     * @return True if the task finished, failed or was cancelled.
+     */
+    boolean isDone();
+}
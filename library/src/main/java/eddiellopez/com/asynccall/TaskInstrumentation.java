@@ -0,0 +1,43 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Follows every task through its steps, for metrics or tracing.
+ * <p>
+ * Each callback is made in the thread where the step happens, and must be short. A task may
+ * skip steps: one cancelled, or delivered from a cache, isn't necessarily enqueued or started,
+ * and one dropped while its lifecycle owner is stopped isn't delivered.
+ *
+ * @see Instrumentation#install(TaskInstrumentation)
+ */
+public interface TaskInstrumentation {
+
+    /**
+     * Called when the task is handed to the executor.
+     *
+     * @param span The task.
+     */
+    void onEnqueued(@NonNull TaskSpan span);
+
+    /**
+     * Called in the worker thread, when the task starts running.
+     *
+     * @param span The task.
+     */
+    void onStarted(@NonNull TaskSpan span);
+
+    /**
+     * Called when the task finishes, is cancelled, or times out.
+     *
+     * @param span The task, with its outcome.
+     */
+    void onFinished(@NonNull TaskSpan span);
+
+    /**
+     * Called in the delivery thread, after the result or exception is delivered.
+     *
+     * @param span The task.
+     */
+    void onDelivered(@NonNull TaskSpan span);
+}
@@ -0,0 +1,120 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Optional settings of a task, as configured in the {@link Builder}.
+ * <p>
+ * The defaults reproduce the plain behavior of a task.
+ */
+final class TaskOptions {
+
+    /**
+     * Whether main thread deliveries are coalesced by the {@link BatchingDispatcher}.
+     */
+    boolean batchDelivery;
+
+    /**
+     * Whether the outcome withheld while the lifecycle owner is stopped is delivered on start.
+     */
+    boolean sticky;
+
+    /**
+     * The key under which concurrent tasks share a single execution, if any.
+     */
+    @Nullable
+    Object key;
+
+    /**
+     * The cache of results checked before submitting, if any. Requires a key.
+     */
+    @Nullable
+    ResultCache cache;
+
+    /**
+     * How long a cached result stays fresh, in milliseconds.
+     */
+    long cacheTtlMillis;
+
+    /**
+     * The cache on disk checked in the executor, after the cache in memory, if any. Requires a
+     * key.
+     */
+    @Nullable
+    DiskResultCache<?> diskCache;
+
+    /**
+     * How long a result cached on disk stays fresh, in milliseconds.
+     */
+    long diskCacheTtlMillis;
+
+    /**
+     * Whether a stale cached result is delivered while the task refreshes it.
+     */
+    boolean staleWhileRevalidate;
+
+    /**
+     * The lane of the task in the default executor.
+     */
+    @NonNull
+    Priority priority = Priority.NORMAL;
+
+    /**
+     * The time the task has to finish, from start, in milliseconds. Zero for no limit.
+     */
+    long timeoutMillis;
+
+    /**
+     * When a failed task runs again, if ever.
+     */
+    @Nullable
+    RetryPolicy retryPolicy;
+
+    /**
+     * Runs the deadline and the retries of the task.
+     */
+    @NonNull
+    Scheduler.Timer timer = Scheduler.SYSTEM;
+
+    /**
+     * Carries the partial results of a streaming task, if any.
+     */
+    @Nullable
+    ProgressStream<?, ?> progress;
+
+    /**
+     * When the task is submitted, superseding the one started before it under the same key.
+     */
+    @Nullable
+    Trigger trigger;
+
+    /**
+     * The scope observing the lifecycle owner in place of the task, if any.
+     */
+    @Nullable
+    TaskScope scope;
+
+    /**
+     * Whether the task waits for the lifecycle owner to start, rather than running unseen.
+     */
+    boolean pauseWhileStopped;
+
+    /**
+     * Limits the tasks in flight in the executor, if set.
+     */
+    @Nullable
+    ConcurrencyLimiter limiter;
+
+    /**
+     * Where the outcome is delivered, if not where the task was started.
+     */
+    @Nullable
+    DeliveryTarget target;
+
+    /**
+     * Names the task for instrumentation, if set.
+     */
+    @Nullable
+    String tag;
+}
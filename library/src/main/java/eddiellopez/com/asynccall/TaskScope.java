@@ -0,0 +1,147 @@
+package eddiellopez.com.asynccall;
+
+import static androidx.lifecycle.Lifecycle.Event.ON_DESTROY;
+import static androidx.lifecycle.Lifecycle.Event.ON_START;
+import static androidx.lifecycle.Lifecycle.Event.ON_STOP;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.OnLifecycleEvent;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The tasks of a lifecycle owner, observing it together.
+ * <p>
+ * Tasks started in a scope don't register an observer each: the scope observes the owner once,
+ * and stops, starts, or cancels its tasks all at once, with the same rules as a task observing
+ * the owner by itself. Once the owner is DESTROYED, tasks started in the scope are cancelled
+ * right away, and {@link #of(LifecycleOwner)} creates a new scope for the owner.
+ *
+ * @see Builder#scope(TaskScope)
+ */
+public final class TaskScope implements LifecycleObserver {
+
+    // Guarded by itself.
+    private static final Map<LifecycleOwner, TaskScope> SCOPES = new WeakHashMap<>();
+
+    private final Set<Threader<?>> children =
+            Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    private volatile boolean delivering = true;
+
+    private volatile boolean destroyed;
+
+    @VisibleForTesting
+    TaskScope() {
+    }
+
+    /**
+     * The scope of a lifecycle owner, created on first use.
+     *
+     * @param owner The lifecycle owner.
+     * @return Its scope.
+     */
+    @NonNull
+    @MainThread
+    public static TaskScope of(@NonNull LifecycleOwner owner) {
+        synchronized (SCOPES) {
+            TaskScope scope = SCOPES.get(owner);
+            if (scope == null) {
+                scope = new TaskScope();
+                SCOPES.put(owner, scope);
+                owner.getLifecycle().addObserver(scope);
+            }
+            return scope;
+        }
+    }
+
+    /**
+     * Cancels every task in the scope, interrupting the running ones. The scope can still be
+     * used afterwards.
+     */
+    public void cancelAll() {
+        for (Threader<?> child : children) {
+            child.cancel(true);
+        }
+    }
+
+    /**
+     * @return The number of tasks in the scope, not done yet.
+     */
+    public int size() {
+        return children.size();
+    }
+
+    /**
+     * @return The state of the owner, as far as its tasks are concerned.
+     */
+    @NonNull
+    Lifecycle.State getState() {
+        if (destroyed) {
+            return Lifecycle.State.DESTROYED;
+        }
+        return delivering ? Lifecycle.State.STARTED : Lifecycle.State.CREATED;
+    }
+
+    /**
+     * Adds a task, in the state of the owner.
+     *
+     * @param threader The task.
+     */
+    void add(@NonNull Threader<?> threader) {
+        children.add(threader);
+        if (destroyed) {
+            threader.onDestroyed();
+        } else if (!delivering) {
+            threader.onStopped();
+        }
+    }
+
+    /**
+     * Removes a task, done or cancelled.
+     *
+     * @param threader The task.
+     */
+    void remove(@NonNull Threader<?> threader) {
+        children.remove(threader);
+    }
+
+    @OnLifecycleEvent(ON_STOP)
+    void onStopped() {
+        delivering = false;
+        for (Threader<?> child : children) {
+            child.onStopped();
+        }
+    }
+
+    @OnLifecycleEvent(ON_START)
+    void onStarted() {
+        delivering = true;
+        for (Threader<?> child : children) {
+            child.onStarted();
+        }
+    }
+
+    @OnLifecycleEvent(ON_DESTROY)
+    void onDestroyed() {
+        synchronized (SCOPES) {
+            // Only this scope's entry, the owner may already have a new one.
+            SCOPES.values().remove(this);
+        }
+        destroyed = true;
+        delivering = false;
+        for (Threader<?> child : children) {
+            child.onDestroyed();
+        }
+        children.clear();
+    }
+}
@@ -0,0 +1,142 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The timeline of a task, as seen by a {@link TaskInstrumentation}.
+ * <p>
+ * The timestamps come from {@link System#nanoTime()}, zero until the task reaches the step.
+ * A span is only created when an instrumentation is installed.
+ */
+public final class TaskSpan {
+
+    /**
+     * How a task ended.
+     */
+    public enum Outcome {
+        /**
+         * The task returned a result.
+         */
+        SUCCESS,
+        /**
+         * The task threw an exception, or timed out.
+         */
+        FAILURE,
+        /**
+         * The task was cancelled.
+         */
+        CANCELLED
+    }
+
+    private static final AtomicInteger IDS = new AtomicInteger();
+
+    private final int id = IDS.incrementAndGet();
+
+    @NonNull
+    private final String tag;
+
+    private volatile long enqueuedNanos;
+
+    private volatile long startedNanos;
+
+    private volatile long finishedNanos;
+
+    private volatile long deliveredNanos;
+
+    private volatile boolean ran;
+
+    @Nullable
+    private volatile Outcome outcome;
+
+    TaskSpan(@NonNull String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * @return A number identifying the task, to pair trace sections for instance.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return The tag of the task.
+     * @see Builder#tag(String)
+     */
+    @NonNull
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * @return When the task was handed to the executor.
+     */
+    public long getEnqueuedNanos() {
+        return enqueuedNanos;
+    }
+
+    /**
+     * @return When the task started running in a worker thread. Zero if it didn't run by itself:
+     * shared under a key, gathered, batched, served from a cache, or cancelled before running.
+     */
+    public long getStartedNanos() {
+        return startedNanos;
+    }
+
+    /**
+     * @return When the task finished running, or was cancelled.
+     */
+    public long getFinishedNanos() {
+        return finishedNanos;
+    }
+
+    /**
+     * @return When the result, or exception, was delivered.
+     */
+    public long getDeliveredNanos() {
+        return deliveredNanos;
+    }
+
+    /**
+     * @return How the task ended, null until it finishes.
+     */
+    @Nullable
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return True if the task ran in this threader, rather than in a shared call or not at all.
+     */
+    boolean hasRun() {
+        return ran;
+    }
+
+    void enqueued() {
+        enqueuedNanos = System.nanoTime();
+    }
+
+    /**
+     * @return True the first time, a task may run in several steps.
+     */
+    boolean started() {
+        if (startedNanos != 0) {
+            return false;
+        }
+        startedNanos = System.nanoTime();
+        ran = true;
+        return true;
+    }
+
+    void finished(@NonNull Outcome outcome) {
+        finishedNanos = System.nanoTime();
+        this.outcome = outcome;
+    }
+
+    void delivered() {
+        deliveredNanos = System.nanoTime();
+    }
+}
@@ -1,24 +1,28 @@
 package eddiellopez.com.asynccall;
 
 
+import static androidx.lifecycle.Lifecycle.Event.ON_DESTROY;
 import static androidx.lifecycle.Lifecycle.Event.ON_START;
 import static androidx.lifecycle.Lifecycle.Event.ON_STOP;
 
-import android.os.Build;
-import android.os.Handler;
-import android.os.Looper;
-import android.util.Log;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
+import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.LifecycleObserver;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.OnLifecycleEvent;
 
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 /**
@@ -28,7 +32,15 @@ import java.util.concurrent.atomic.AtomicBoolean;
  *
  * @param <T> The type of the threader.
  */
-abstract class Threader<T> implements LifecycleObserver {
+abstract class Threader<T> implements LifecycleObserver, PrioritizedTask, TaskHandle {
+
+    private static final int NEW = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    private static final int INTERRUPTING = 3;
+    private static final int CANCELLED = 4;
+
+    private static final String DEFAULT_TAG = "AsyncCall";
 
     @NonNull
     private final ExecutorService executor;
@@ -42,6 +54,55 @@ abstract class Threader<T> implements LifecycleObserver {
 
     private final DeliveryProcedure<T> deliveryProcedure;
 
+    @NonNull
+    private final TaskOptions options;
+
+    private Callable<T> callable;
+
+    // Where the outcome goes, or null to deliver in the completing thread.
+    @Nullable
+    private DeliveryTarget target;
+
+    private final AtomicInteger state = new AtomicInteger(NEW);
+
+    @Nullable
+    private volatile Thread runner;
+
+    private final AtomicReference<Outcome<T>> withheld = new AtomicReference<>();
+
+    @Nullable
+    private volatile DelegatedCall<T> delegatedCall;
+
+    @Nullable
+    private volatile Future<?> deadline;
+
+    @Nullable
+    private volatile Future<?> pendingRetry;
+
+    // Both null unless an instrumentation is installed.
+    @Nullable
+    private TaskInstrumentation instrumentation;
+
+    @Nullable
+    private TaskSpan span;
+
+    // The number of times the task ran and failed.
+    private int attempts;
+
+    // The next stage of a pipeline to run, and the result of the previous one. A failed stage
+    // stays next, so that a retry resumes from it.
+    private int stage;
+
+    @Nullable
+    private Object carry;
+
+    // Submits the task parked while the lifecycle owner is stopped, if any.
+    private final AtomicReference<Runnable> parked = new AtomicReference<>();
+
+    // When a limiter handed the task to the executor. Written before handing it, by the thread
+    // submitting, which may be the timer or the worker of a previous stage.
+    volatile long admittedAtNanos;
+
     /**
      * The basic threader.
      *
@@ -55,11 +116,31 @@ abstract class Threader<T> implements LifecycleObserver {
             @Nullable OnExceptionHandler onExceptionHandler,
             @Nullable LifecycleOwner lifecycleOwner,
             @NonNull DeliveryProcedure<T> deliveryProcedure
+    ) {
+        this(executor, onExceptionHandler, lifecycleOwner, deliveryProcedure, new TaskOptions());
+    }
+
+    /**
+     * The basic threader, with optional settings.
+     *
+     * @param executor           The executor.
+     * @param onExceptionHandler The exception handler.
+     * @param deliveryProcedure  The delivery procedure.
+     * @param lifecycleOwner     The lifecycle owner.
+     * @param options            The optional settings.
+     */
+    protected Threader(
+            @NonNull ExecutorService executor,
+            @Nullable OnExceptionHandler onExceptionHandler,
+            @Nullable LifecycleOwner lifecycleOwner,
+            @NonNull DeliveryProcedure<T> deliveryProcedure,
+            @NonNull TaskOptions options
     ) {
         this.executor = executor;
         this.onExceptionHandler = onExceptionHandler;
         this.lifecycleOwner = lifecycleOwner;
         this.deliveryProcedure = deliveryProcedure;
+        this.options = options;
 
         // Observe lifecycle events
         observeLifecycle();
@@ -75,58 +156,708 @@ abstract class Threader<T> implements LifecycleObserver {
 
 
     protected void submit(@NonNull Callable<T> callable) {
-        // Deliver in the UI Thread if requested in the UI Thread.
-        final boolean calledOnUiThread = isUiThread();
-
-        executor.execute(() -> {
-            try {
-                // Run the action.
-                final T result = callable.call();
-                if (deliver.get()) {
-                    finishExecution(calledOnUiThread, () -> deliveryProcedure.deliver(result));
+        if (state.get() != NEW) {
+            // Cancelled before starting.
+            return;
+        }
+        instrumentation = Instrumentation.getInstalled();
+        if (instrumentation != null) {
+            span = new TaskSpan(getTag());
+        }
+
+        // Deliver in the UI Thread if requested in the UI Thread, unless told otherwise.
+        this.target = resolveTarget();
+        if (options.progress != null) {
+            options.progress.bind(this, progressTarget(), options.sticky);
+        }
+
+        if (options.trigger != null) {
+            // Submitted when due, unless superseded meanwhile.
+            options.trigger.enter(this, () -> dispatch(callable));
+        } else {
+            dispatch(callable);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void dispatch(@NonNull Callable<T> callable) {
+        if (state.get() != NEW) {
+            // Cancelled while waiting.
+            return;
+        }
+        if (options.pauseWhileStopped) {
+            final Callable<T> waiting = callable;
+            if (parkWhileStopped(() -> dispatch(waiting))) {
+                return;
+            }
+        }
+        if (options.diskCache != null && options.key != null) {
+            // Checked in the executor, results read from disk are cached in memory as well.
+            callable = new DiskCachingCallable<>(callable, (DiskResultCache<T>) options.diskCache,
+                    options.key, options.diskCacheTtlMillis);
+        }
+        if (options.cache != null && options.key != null) {
+            final CachingCallable<T> caching = new CachingCallable<>(
+                    callable, options.cache, options.key, options.cacheTtlMillis, options.priority);
+            if (deliverCached(options.cache.get(options.key), caching)) {
+                return;
+            }
+            callable = caching;
+        }
+        this.callable = callable;
+
+        if (options.timeoutMillis > 0) {
+            deadline = options.timer.schedule(
+                    this::expire, TimeUnit.MILLISECONDS.toNanos(options.timeoutMillis));
+        }
+
+        final Callable<?> head = callable instanceof Pipeline
+                ? ((Pipeline<T>) callable).head()
+                : callable;
+        if (span != null) {
+            span.enqueued();
+            instrumentation.onEnqueued(span);
+        }
+        try {
+            if (options.key != null) {
+                // Share the execution with any task in flight under the same key.
+                SharedCall.join(options.key, this, callable, executor);
+            } else if (head instanceof Gather) {
+                // Run the gathered tasks in parallel.
+                ((Gather<?>) head).start(this, executor);
+            } else if (head instanceof BatchLoader.Load) {
+                // Load along with the keys requested close to it.
+                ((BatchLoader.Load<?, ?>) head).join(this, executor);
+            } else {
+                // The threader itself is the task, submitting doesn't allocate.
+                execute();
+            }
+        } catch (RejectedExecutionException e) {
+            reject(e);
+        }
+    }
+
+    @Nullable
+    private DeliveryTarget resolveTarget() {
+        if (options.target != null) {
+            return options.target;
+        }
+        if (!isUiThread()) {
+            return null;
+        }
+        return options.batchDelivery
+                ? DeliveryTargets.batchingMainThread()
+                : DeliveryTargets.mainThread();
+    }
+
+    @Nullable
+    private DeliveryTarget progressTarget() {
+        if (options.target != null || target == null) {
+            return target;
+        }
+        // In the UI Thread, at most once per frame.
+        return MainThreadDispatcher.getInstance()::postOnNextFrame;
+    }
+
+    @NonNull
+    @Override
+    public Priority getPriority() {
+        return options.priority;
+    }
+
+    @Override
+    public void reject(@NonNull RejectedExecutionException exception) {
+        if (state.compareAndSet(NEW, DONE)) {
+            finish(null, exception);
+        }
+    }
+
+    /**
+     * Completes with a cached result, if usable, skipping the executor.
+     *
+     * @param entry   The cache entry, if any.
+     * @param caching The task, to refresh a stale result.
+     * @return True if delivered from the cache.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean deliverCached(@Nullable ResultCache.Entry entry, @NonNull CachingCallable<T> caching) {
+        if (entry == null) {
+            return false;
+        }
+        final boolean fresh = entry.isFresh();
+        if (!fresh && !options.staleWhileRevalidate) {
+            return false;
+        }
+        if (!state.compareAndSet(NEW, DONE)) {
+            return true;
+        }
+        if (!fresh) {
+            caching.refresh(executor);
+        }
+        finish((T) entry.getValue(), null);
+        return true;
+    }
+
+    /**
+     * Runs the stages of a pipeline back to back, up to the next asynchronous one, which is
+     * submitted to the executor. The main thread is never involved between stages.
+     *
+     * @param pipeline The pipeline.
+     * @return True if the last stage ran, its result is in {@link #carry}.
+     * @throws Exception As thrown by a stage.
+     */
+    private boolean runStages(@NonNull Pipeline<T> pipeline) throws Exception {
+        do {
+            carry = pipeline.apply(stage, carry);
+            stage++;
+        } while (stage < pipeline.size() && !pipeline.isAsync(stage));
+
+        if (stage == pipeline.size()) {
+            return true;
+        }
+
+        runner = null;
+        if (!state.compareAndSet(RUNNING, NEW)) {
+            // Cancelled while running.
+            awaitCancellationInterrupt();
+            return false;
+        }
+        try {
+            execute();
+        } catch (RejectedExecutionException e) {
+            reject(e);
+        }
+        return false;
+    }
+
+    /**
+     * Runs the task in the worker thread. Not to be called directly.
+     */
+    @Override
+    public void run() {
+        final ConcurrencyLimiter limiter = options.limiter;
+        if (limiter == null) {
+            runTask();
+            return;
+        }
+        // Read first, a next stage submitted while running admits it again.
+        final long admitted = admittedAtNanos;
+        final long started = System.nanoTime();
+        boolean ran = false;
+        try {
+            ran = runTask();
+        } finally {
+            limiter.release(started - admitted, ran ? System.nanoTime() - started : -1);
+        }
+    }
+
+    /**
+     * Hands the task to the executor, through the limiter if any.
+     */
+    private void execute() {
+        if (options.limiter != null) {
+            options.limiter.execute(this, executor);
+        } else {
+            executor.execute(this);
+        }
+    }
+
+    /**
+     * Runs the task, or the next stages of it.
+     *
+     * @return False if it didn't run, cancelled or parked.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean runTask() {
+        if (options.pauseWhileStopped && state.get() == NEW && parkWhileStopped(this::resubmit)) {
+            // Stopped while queued.
+            return false;
+        }
+        if (!state.compareAndSet(NEW, RUNNING)) {
+            // Cancelled while queued.
+            return false;
+        }
+        runner = Thread.currentThread();
+        if (span != null && span.started()) {
+            instrumentation.onStarted(span);
+        }
+
+        T result = null;
+        Exception failure = null;
+        try {
+            // Run the action.
+            if (callable instanceof Pipeline) {
+                if (!runStages((Pipeline<T>) callable)) {
+                    // Continues in another run, which may already own the runner.
+                    return true;
                 }
+                result = (T) carry;
+                carry = null;
+            } else {
+                result = callable.call();
+            }
+            runner = null;
+        } catch (Exception e) {
+            // Thrown before any hand off.
+            runner = null;
+            failure = e;
+        }
+
+        if (failure != null && retry(failure)) {
+            return true;
+        }
+
+        if (!state.compareAndSet(RUNNING, DONE)) {
+            // Cancelled while running, the outcome is dropped.
+            awaitCancellationInterrupt();
+            return true;
+        }
+
+        finish(result, failure);
+        return true;
+    }
+
+    /**
+     * Schedules another attempt after a failure, if the retry policy allows. The worker thread
+     * is released meanwhile, the shared timer submits the task again once the backoff elapses.
+     *
+     * @param failure The exception thrown by the task.
+     * @return True if handled here, either retrying or cancelled.
+     */
+    private boolean retry(@NonNull Exception failure) {
+        final RetryPolicy policy = options.retryPolicy;
+        if (policy == null || !policy.shouldRetry(failure, ++attempts)) {
+            return false;
+        }
+        if (!state.compareAndSet(RUNNING, NEW)) {
+            // Cancelled while running.
+            awaitCancellationInterrupt();
+            return true;
+        }
+        pendingRetry = options.timer.schedule(
+                this::resubmit, TimeUnit.MILLISECONDS.toNanos(policy.delayMillis(attempts)));
+        if (state.get() != NEW) {
+            // Cancelled before the retry could be seen.
+            cancelPendingRetry();
+        }
+        return true;
+    }
+
+    /**
+     * Parks the task if the lifecycle owner is stopped, until it starts, or drops it if the
+     * owner is destroyed.
+     *
+     * @param resume Submits the task, once the owner starts.
+     * @return True if parked or dropped, false to go on.
+     */
+    private boolean parkWhileStopped(@NonNull Runnable resume) {
+        final Lifecycle.State ownerState = getOwnerState();
+        if (ownerState == Lifecycle.State.DESTROYED) {
+            cancel(true);
+            return true;
+        }
+        if (ownerState.isAtLeast(Lifecycle.State.STARTED)) {
+            return false;
+        }
+        parked.set(resume);
+        if (getOwnerState() != ownerState) {
+            // Started, or destroyed, while parking.
+            resumeParked();
+        }
+        return true;
+    }
 
-            } catch (Exception e) {
+    private void resumeParked() {
+        final Runnable resume = parked.getAndSet(null);
+        if (resume != null) {
+            resume.run();
+        }
+    }
+
+    @NonNull
+    private Lifecycle.State getOwnerState() {
+        if (options.scope != null) {
+            return options.scope.getState();
+        }
+        if (lifecycleOwner != null) {
+            if (isUiThread()) {
+                return lifecycleOwner.getLifecycle().getCurrentState();
+            }
+            // Followed from the events elsewhere, the registry is only safe in the UI Thread.
+            if (isCancelled()) {
+                return Lifecycle.State.DESTROYED;
+            }
+            return deliver.get() ? Lifecycle.State.STARTED : Lifecycle.State.CREATED;
+        }
+        return Lifecycle.State.RESUMED;
+    }
+
+    /**
+     * Submits the task again, after a backoff. Called by the shared timer.
+     */
+    private void resubmit() {
+        if (state.get() != NEW) {
+            return;
+        }
+        try {
+            execute();
+        } catch (RejectedExecutionException e) {
+            reject(e);
+        }
+    }
+
+    /**
+     * Completes with the outcome of a call shared with other threaders.
+     *
+     * @param result  The result, if no failure.
+     * @param failure The exception thrown by the task, if any.
+     */
+    void completeShared(@Nullable T result, @Nullable Exception failure) {
+        if (state.compareAndSet(NEW, DONE)) {
+            finish(result, failure);
+        }
+    }
+
+    /**
+     * Completes with the outcome of tasks gathered in parallel. If the task has further stages,
+     * they run next in the calling worker thread.
+     *
+     * @param value   The gathered value, if no failure.
+     * @param failure The exception thrown by the tasks, if any.
+     */
+    @SuppressWarnings("unchecked")
+    void completeGathered(@Nullable Object value, @Nullable Exception failure) {
+        if (failure == null && callable instanceof Pipeline) {
+            // Carry on with the stages after the gathering.
+            stage = 1;
+            carry = value;
+            runTask();
+        } else {
+            completeShared((T) value, failure);
+        }
+    }
+
+    /**
+     * Attaches to a call that runs the task on behalf of this one.
+     *
+     * @param call The call.
+     */
+    void attach(@NonNull DelegatedCall<T> call) {
+        delegatedCall = call;
+    }
+
+    private void finish(@Nullable T result, @Nullable Exception failure) {
+        cancelDeadline();
+        leaveTrigger();
+        traceFinished(failure == null ? TaskSpan.Outcome.SUCCESS : TaskSpan.Outcome.FAILURE);
+        try {
+            if (!deliver.get()) {
+                // The lifecycle owner is stopped.
+                withhold(result, failure);
+            } else if (failure == null) {
+                finishWithResult(result);
+            } else if (onExceptionHandler != null) {
                 // Check if there is an exception handling configured.
-                if (onExceptionHandler != null) {
-                    finishExecution(calledOnUiThread, () -> onExceptionHandler.onFailure(e));
-                }
+                finishWithFailure(failure);
+            } else {
                 // Can't be caught outside!. A fatal exception that crashes the app.
+                stopObservingLifecycle();
             }
-        });
+        } catch (RuntimeException e) {
+            if (failure != null || onExceptionHandler == null) {
+                throw e;
+            }
+            // A result listener failed when delivering in this thread.
+            finishWithFailure(e);
+        }
+    }
+
+    private void withhold(@Nullable T result, @Nullable Exception failure) {
+        if (!options.sticky) {
+            if (failure == null) {
+                // Dropped, nobody is watching.
+                closeProgress();
+                stopObservingLifecycle();
+            } else if (onExceptionHandler != null) {
+                // Exceptions are always delivered.
+                finishWithFailure(failure);
+            }
+            return;
+        }
+
+        // Keep observing, the outcome is delivered on start.
+        withheld.set(new Outcome<>(result, failure));
+        if (deliver.get()) {
+            // Started in the meantime.
+            deliverWithheld();
+        }
+    }
+
+    private void deliverWithheld() {
+        final Outcome<T> outcome = withheld.getAndSet(null);
+        if (outcome == null) {
+            return;
+        }
+        if (outcome.failure == null) {
+            finishWithResult(outcome.result);
+        } else if (onExceptionHandler != null) {
+            finishWithFailure(outcome.failure);
+        } else {
+            stopObservingLifecycle();
+        }
+    }
+
+    /**
+     * Waits for a concurrent {@link #cancel(boolean)} to interrupt, and clears the interrupt,
+     * so it doesn't leak to the next task run by this thread.
+     */
+    private void awaitCancellationInterrupt() {
+        while (state.get() == INTERRUPTING) {
+            Thread.yield();
+        }
+        //noinspection ResultOfMethodCallIgnored
+        Thread.interrupted();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterrupt) {
+        if (abort(mayInterrupt)) {
+            leaveTrigger();
+            traceFinished(TaskSpan.Outcome.CANCELLED);
+            closeProgress();
+            stopObservingLifecycle();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Fails the task with a {@link TimeoutException}, if not done yet. Called by the shared timer.
+     */
+    void expire() {
+        if (abort(true)) {
+            finish(null, new TimeoutException("Task timed out"));
+        }
+    }
+
+    /**
+     * Stops the task, unless already done.
+     *
+     * @param mayInterrupt Whether to interrupt the running task.
+     * @return True if stopped by this call.
+     */
+    private boolean abort(boolean mayInterrupt) {
+        while (true) {
+            final int current = state.get();
+            if (current == NEW) {
+                if (state.compareAndSet(NEW, CANCELLED)) {
+                    // Take it out of the queue, if the executor allows.
+                    if (executor instanceof ThreadPoolExecutor
+                            && ((ThreadPoolExecutor) executor).remove(this)
+                            && options.limiter != null) {
+                        // It won't run, give its place back.
+                        options.limiter.release(0, -1);
+                    }
+                    // Or leave the call running on its behalf.
+                    final DelegatedCall<T> call = delegatedCall;
+                    if (call != null) {
+                        call.leave(this, mayInterrupt);
+                    }
+                    cancelDeadline();
+                    cancelPendingRetry();
+                    return true;
+                }
+            } else if (current == RUNNING) {
+                if (state.compareAndSet(RUNNING, mayInterrupt ? INTERRUPTING : CANCELLED)) {
+                    if (mayInterrupt) {
+                        final Thread thread = runner;
+                        if (thread != null) {
+                            thread.interrupt();
+                        }
+                        state.set(CANCELLED);
+                    }
+                    cancelDeadline();
+                    return true;
+                }
+            } else {
+                return false;
+            }
+        }
+    }
+
+    private void cancelDeadline() {
+        final Future<?> timeout = deadline;
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+    }
+
+    private void traceFinished(@NonNull TaskSpan.Outcome outcome) {
+        if (span != null) {
+            span.finished(outcome);
+            instrumentation.onFinished(span);
+        }
+    }
+
+    private void traceDelivered() {
+        if (span != null) {
+            span.delivered();
+            instrumentation.onDelivered(span);
+        }
+    }
+
+    private void leaveTrigger() {
+        if (options.trigger != null) {
+            options.trigger.leave(this);
+        }
+    }
+
+    private void cancelPendingRetry() {
+        final Future<?> retry = pendingRetry;
+        if (retry != null) {
+            retry.cancel(false);
+        }
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return state.get() >= INTERRUPTING;
     }
 
-    protected void finishExecution(boolean calledOnUiThread, Runnable deliver) {
-        if (calledOnUiThread) {
-            // Deliver in the UI Thread.
-            new Handler(Looper.getMainLooper()).post(deliver);
+    @Override
+    public boolean isDone() {
+        return state.get() >= DONE;
+    }
+
+    protected void finishWithResult(@Nullable T result) {
+        final DeliveryTarget target = this.target;
+        if (target != null) {
+            // Deliver in the target.
+            MainThreadDispatcher.getInstance().dispatchResult(this, result, target);
         } else {
             // Deliver in the calling thread.
-            deliver.run();
+            deliverResult(result);
         }
 
         // Finally, always stop observing the lifecycle
         stopObservingLifecycle();
     }
 
+    protected void finishWithFailure(@NonNull Exception exception) {
+        final DeliveryTarget target = this.target;
+        if (target != null) {
+            // Deliver in the target.
+            MainThreadDispatcher.getInstance().dispatchFailure(this, exception, target);
+        } else {
+            // Deliver in the calling thread.
+            deliverFailure(exception);
+        }
+
+        // Finally, always stop observing the lifecycle
+        stopObservingLifecycle();
+    }
+
+    /**
+     * Hands the result to the delivery procedure, in the delivery thread.
+     *
+     * @param result The result.
+     */
+    void deliverResult(@Nullable T result) {
+        final DeliveryMonitor monitor = uiThreadMonitor();
+        final long start = monitor != null ? System.nanoTime() : 0;
+        flushProgress();
+        deliveryProcedure.deliver(result);
+        if (monitor != null) {
+            monitor.record(getTag(), System.nanoTime() - start);
+        }
+        traceDelivered();
+    }
+
+    /**
+     * Hands the exception to the exception handler, in the delivery thread.
+     *
+     * @param exception The exception.
+     */
+    void deliverFailure(@NonNull Exception exception) {
+        final DeliveryMonitor monitor = uiThreadMonitor();
+        final long start = monitor != null ? System.nanoTime() : 0;
+        flushProgress();
+        if (onExceptionHandler != null) {
+            onExceptionHandler.onFailure(exception);
+        }
+        if (monitor != null) {
+            monitor.record(getTag(), System.nanoTime() - start);
+        }
+        traceDelivered();
+    }
+
+    /**
+     * Called in the UI Thread.
+     *
+     * @return True if the delivery about to run is over its budget, and goes to the next frame.
+     */
+    boolean shouldDeferDelivery() {
+        final DeliveryMonitor monitor = DeliveryMonitor.getInstalled();
+        return monitor != null && monitor.shouldDefer(getTag());
+    }
+
+    // Only the deliveries in the UI Thread are timed.
+    @Nullable
+    private static DeliveryMonitor uiThreadMonitor() {
+        final DeliveryMonitor monitor = DeliveryMonitor.getInstalled();
+        return monitor != null && isUiThread() ? monitor : null;
+    }
+
+    @NonNull
+    private String getTag() {
+        return options.tag != null ? options.tag : DEFAULT_TAG;
+    }
+
+    /**
+     * @return True unless the lifecycle owner is stopped.
+     */
+    boolean isDelivering() {
+        return deliver.get();
+    }
+
+    // The partial results come before the final one, and none after.
+    private void flushProgress() {
+        final ProgressStream<?, ?> progress = options.progress;
+        if (progress != null) {
+            progress.flush();
+            progress.close();
+        }
+    }
+
+    private void closeProgress() {
+        final ProgressStream<?, ?> progress = options.progress;
+        if (progress != null) {
+            progress.close();
+        }
+    }
+
     private void observeLifecycle() {
-        if (lifecycleOwner != null) {
+        if (options.scope != null) {
+            // The scope observes for all its tasks.
+            options.scope.add(this);
+        } else if (lifecycleOwner != null) {
             lifecycleOwner.getLifecycle().addObserver(this);
         }
     }
 
     private void stopObservingLifecycle() {
-        if (lifecycleOwner != null) {
+        if (options.scope != null) {
+            options.scope.remove(this);
+        } else if (lifecycleOwner != null) {
             lifecycleOwner.getLifecycle().removeObserver(this);
         }
     }
 
-    private boolean isUiThread() {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-            return Looper.getMainLooper().isCurrentThread();
-        } else {
-            return Looper.getMainLooper().getThread() == Thread.currentThread();
-        }
+    /**
+     * @return True if called in the UI Thread.
+     */
+    static boolean isUiThread() {
+        return Platform.get().isMainThread();
     }
 
     @OnLifecycleEvent(ON_STOP)
@@ -138,6 +869,41 @@ abstract class Threader<T> implements LifecycleObserver {
     @OnLifecycleEvent(ON_START)
     void onStarted() {
         deliver.set(true);
+        // A task may be waiting to run.
+        resumeParked();
+        // Sticky partial results and outcome may be waiting.
+        final ProgressStream<?, ?> progress = options.progress;
+        if (progress != null) {
+            progress.flush();
+        }
+        deliverWithheld();
+    }
+
+    @OnLifecycleEvent(ON_DESTROY)
+    void onDestroyed() {
+        // Nobody is left to receive the result, stop working on it.
+        deliver.set(false);
+        parked.set(null);
+        if (!cancel(true) && withheld.getAndSet(null) != null) {
+            stopObservingLifecycle();
+        }
+    }
+
+    /**
+     * The outcome of a task, withheld while the lifecycle owner is stopped.
+     */
+    private static final class Outcome<T> {
+
+        @Nullable
+        final T result;
+
+        @Nullable
+        final Exception failure;
+
+        Outcome(@Nullable T result, @Nullable Exception failure) {
+            this.result = result;
+            this.failure = failure;
+        }
     }
 
 }
@@ -14,14 +14,16 @@ class ThreaderFactory {
             @Nullable OnExceptionHandler onExceptionHandler,
             @Nullable LifecycleOwner lifecycleOwner,
             @NonNull Callable<T> callable,
-            @Nullable OnConsumableResultListener<T> onConsumableResultListener
+            @Nullable OnConsumableResultListener<T> onConsumableResultListener,
+            @NonNull TaskOptions options
     ) {
         return new ResultThreader<>(
                 executor,
                 onExceptionHandler,
                 lifecycleOwner,
                 callable,
-                onConsumableResultListener
+                onConsumableResultListener,
+                options
         );
     }
 }
@@ -0,0 +1,71 @@
+package eddiellopez.com.asynccall;
+
+import android.os.Build;
+import android.os.Trace;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Emits {@link Trace} sections for the tasks, named after their tags, to see them in system
+ * traces: the time each task waits in the queue, runs, and waits for its delivery.
+ * <p>
+ * A task may start and finish in different threads, so the sections are asynchronous ones,
+ * available from Android 10. Before that, and outside Android, nothing is emitted.
+ */
+public final class TraceInstrumentation implements TaskInstrumentation {
+
+    private final boolean enabled = Platform.get().isAndroid()
+            && Platform.get().isApiAvailable(Build.VERSION_CODES.Q);
+
+    @Override
+    public void onEnqueued(@NonNull TaskSpan span) {
+        if (enabled) {
+            begin(span.getTag() + " queued", span.getId());
+        }
+    }
+
+    @Override
+    public void onStarted(@NonNull TaskSpan span) {
+        if (enabled) {
+            if (span.getEnqueuedNanos() != 0) {
+                end(span.getTag() + " queued", span.getId());
+            }
+            begin(span.getTag() + " run", span.getId());
+        }
+    }
+
+    @Override
+    public void onFinished(@NonNull TaskSpan span) {
+        if (!enabled) {
+            return;
+        }
+        if (span.hasRun()) {
+            end(span.getTag() + " run", span.getId());
+        } else if (span.getEnqueuedNanos() != 0) {
+            // Cancelled, or shared, while queued.
+            end(span.getTag() + " queued", span.getId());
+        }
+        if (span.getOutcome() != TaskSpan.Outcome.CANCELLED) {
+            begin(span.getTag() + " delivery", span.getId());
+        }
+    }
+
+    @Override
+    public void onDelivered(@NonNull TaskSpan span) {
+        if (enabled) {
+            end(span.getTag() + " delivery", span.getId());
+        }
+    }
+
+    private static void begin(@NonNull String name, int cookie) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection(name, cookie);
+        }
+    }
+
+    private static void end(@NonNull String name, int cookie) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(name, cookie);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when a task started again and again under a key is submitted, superseding the ones
+ * started before it. A superseded task is cancelled, and delivers nothing. Delayed tasks wait in
+ * the shared timer, so a superseded one never reaches the executor.
+ *
+ * @see Builder#debounce(Object, long, TimeUnit)
+ * @see Builder#throttle(Object, long, TimeUnit)
+ * @see Builder#switchLatest(Object)
+ */
+final class Trigger {
+
+    private enum Mode {
+        /**
+         * Submitted at once, the previous one is cancelled even if running.
+         */
+        SWITCH_LATEST,
+        /**
+         * Submitted after a quiet period, the previous one is cancelled even if running.
+         */
+        DEBOUNCE,
+        /**
+         * Submitted at most once per period, the previous one runs to completion if started.
+         */
+        THROTTLE
+    }
+
+    private static final ConcurrentMap<Object, Slot> SLOTS = new ConcurrentHashMap<>();
+
+    @NonNull
+    private final Object key;
+
+    @NonNull
+    private final Mode mode;
+
+    private final long periodNanos;
+
+    @NonNull
+    private final Scheduler.Timer timer;
+
+    private Trigger(
+            @NonNull Object key,
+            @NonNull Mode mode,
+            long periodNanos,
+            @NonNull Scheduler.Timer timer
+    ) {
+        this.key = key;
+        this.mode = mode;
+        this.periodNanos = Math.max(0, periodNanos);
+        this.timer = timer;
+    }
+
+    @NonNull
+    static Trigger switchLatest(@NonNull Object key) {
+        return new Trigger(key, Mode.SWITCH_LATEST, 0, Scheduler.SYSTEM);
+    }
+
+    @NonNull
+    static Trigger debounce(@NonNull Object key, long delay, @NonNull TimeUnit unit) {
+        return new Trigger(key, Mode.DEBOUNCE, unit.toNanos(delay), Scheduler.SYSTEM);
+    }
+
+    @NonNull
+    static Trigger throttle(@NonNull Object key, long period, @NonNull TimeUnit unit) {
+        return new Trigger(key, Mode.THROTTLE, unit.toNanos(period), Scheduler.SYSTEM);
+    }
+
+    /**
+     * @param timer The timer to use instead of the shared one.
+     * @return The same trigger, on that timer.
+     */
+    @NonNull
+    @VisibleForTesting
+    Trigger using(@NonNull Scheduler.Timer timer) {
+        return new Trigger(key, mode, periodNanos, timer);
+    }
+
+    @VisibleForTesting
+    static boolean isTracked(@NonNull Object key) {
+        return SLOTS.containsKey(key);
+    }
+
+    /**
+     * Supersedes the task current under the key, and submits the new one when due.
+     *
+     * @param threader The new task.
+     * @param submit   Submits it to the executor.
+     */
+    void enter(@NonNull Threader<?> threader, @NonNull Runnable submit) {
+        while (true) {
+            Slot slot = SLOTS.get(key);
+            if (slot == null) {
+                final Slot created = new Slot();
+                slot = SLOTS.putIfAbsent(key, created);
+                if (slot == null) {
+                    slot = created;
+                }
+            }
+
+            final Threader<?> superseded;
+            final Future<?> unsubmitted;
+            final boolean now;
+            synchronized (slot) {
+                if (slot.removed) {
+                    // Released right now, use a new one.
+                    continue;
+                }
+                if (slot.expiry != null) {
+                    // Taken again within the period.
+                    slot.expiry.cancel(false);
+                    slot.expiry = null;
+                }
+                superseded = slot.current;
+                unsubmitted = slot.pending;
+                slot.current = threader;
+                slot.pending = null;
+
+                final long delay = delayNanos(slot);
+                now = delay <= 0;
+                if (now) {
+                    slot.submitted = true;
+                    slot.lastSubmitNanos = timer.nanoTime();
+                } else {
+                    final Slot target = slot;
+                    slot.pending = timer.schedule(() -> fire(target, threader, submit), delay);
+                }
+            }
+
+            if (superseded != null) {
+                supersede(superseded, unsubmitted);
+            }
+            if (now) {
+                submit.run();
+            }
+            return;
+        }
+    }
+
+    /**
+     * Forgets a task that completed, or was cancelled.
+     *
+     * @param threader The task.
+     */
+    void leave(@NonNull Threader<?> threader) {
+        final Slot slot = SLOTS.get(key);
+        if (slot == null) {
+            return;
+        }
+        synchronized (slot) {
+            if (slot.current != threader) {
+                return;
+            }
+            slot.current = null;
+            if (slot.pending != null) {
+                slot.pending.cancel(false);
+                slot.pending = null;
+            }
+            final long remaining = mode == Mode.THROTTLE
+                    ? slot.lastSubmitNanos + periodNanos - timer.nanoTime()
+                    : 0;
+            if (remaining > 0) {
+                // The period isn't over, the next one has to wait for it. Forget it afterwards.
+                final Slot target = slot;
+                slot.expiry = timer.schedule(() -> expire(target), remaining);
+                return;
+            }
+            slot.removed = true;
+        }
+        SLOTS.remove(key, slot);
+    }
+
+    // Forgets a key left alone for a whole period.
+    private void expire(@NonNull Slot slot) {
+        synchronized (slot) {
+            if (slot.current != null || slot.removed) {
+                // Taken again meanwhile.
+                return;
+            }
+            slot.expiry = null;
+            slot.removed = true;
+        }
+        SLOTS.remove(key, slot);
+    }
+
+    // Guarded by slot.
+    private long delayNanos(@NonNull Slot slot) {
+        switch (mode) {
+            case DEBOUNCE:
+                return periodNanos;
+            case THROTTLE:
+                return slot.submitted
+                        ? slot.lastSubmitNanos + periodNanos - timer.nanoTime()
+                        : 0;
+            default:
+                return 0;
+        }
+    }
+
+    private void supersede(@NonNull Threader<?> superseded, @Nullable Future<?> unsubmitted) {
+        if (unsubmitted != null) {
+            // Still waiting, it never reaches the executor.
+            unsubmitted.cancel(false);
+            superseded.cancel(false);
+        } else if (mode != Mode.THROTTLE) {
+            superseded.cancel(true);
+        }
+    }
+
+    private void fire(@NonNull Slot slot, @NonNull Threader<?> threader, @NonNull Runnable submit) {
+        synchronized (slot) {
+            if (slot.current != threader) {
+                // Superseded meanwhile.
+                return;
+            }
+            slot.pending = null;
+            slot.submitted = true;
+            slot.lastSubmitNanos = timer.nanoTime();
+        }
+        submit.run();
+    }
+
+    /**
+     * The state of a key.
+     */
+    private static final class Slot {
+
+        // All guarded by this.
+        @Nullable
+        Threader<?> current;
+
+        @Nullable
+        Future<?> pending;
+
+        // Forgets the key at the end of a throttle period.
+        @Nullable
+        Future<?> expiry;
+
+        boolean submitted;
+
+        long lastSubmitNanos;
+
+        boolean removed;
+    }
+}
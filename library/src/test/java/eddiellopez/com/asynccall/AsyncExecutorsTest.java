@@ -0,0 +1,33 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class AsyncExecutorsTest {
+
+    @Test
+    public void blockingRunsTasks() throws Exception {
+        final String result = AsyncExecutors.getBlocking()
+                .submit(() -> "Result")
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(result, is("Result"));
+    }
+
+    @Test
+    public void blockingFallsBackToDefault() {
+        if (!AsyncExecutors.hasVirtualThreads()) {
+            assertThat(AsyncExecutors.getBlocking(), is(sameInstance(AsyncExecutors.getDefault())));
+        }
+    }
+
+    @Test
+    public void noUiThreadOnJvm() {
+        assertThat(Platform.get().isMainThread(), is(false));
+    }
+}
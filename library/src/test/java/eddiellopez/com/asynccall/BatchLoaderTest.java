@@ -0,0 +1,120 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class BatchLoaderTest {
+
+    private final List<Set<Integer>> calls = Collections.synchronizedList(new ArrayList<>());
+
+    private final Map<Integer, String> results = Collections.synchronizedMap(new HashMap<>());
+
+    @Test
+    public void loadsKeysTogether() throws InterruptedException {
+        final BatchLoader<Integer, String> loader =
+                new BatchLoader<>(this::load, 100, 50, TimeUnit.MILLISECONDS);
+        final CountDownLatch latch = new CountDownLatch(3);
+
+        start(loader, 1, latch);
+        start(loader, 2, latch);
+        start(loader, 1, latch);
+
+        // We expect a single load, of distinct keys, split back to each task.
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertThat(calls.size(), is(1));
+        assertThat(calls.get(0), is((Set<Integer>) new HashSet<>(Arrays.asList(1, 2))));
+        assertThat(results.get(1), is("Value 1"));
+        assertThat(results.get(2), is("Value 2"));
+    }
+
+    @Test
+    public void loadsFullBatchesRightAway() {
+        final BatchLoader<Integer, String> loader =
+                new BatchLoader<>(this::load, 2, 1, TimeUnit.HOURS);
+        final CountDownLatch latch = new CountDownLatch(2);
+
+        start(loader, 1, latch);
+        assertThat(calls.size(), is(0));
+        start(loader, 2, latch);
+
+        assertThat(latch.getCount(), is(0L));
+        assertThat(calls.size(), is(1));
+    }
+
+    @Test
+    public void failsEveryTask() {
+        final BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> {
+            throw new IllegalStateException("Unavailable");
+        }, 2, 1, TimeUnit.HOURS);
+        final List<Exception> failures = new ArrayList<>();
+
+        for (int key = 1; key <= 2; key++) {
+            new Builder<String>()
+                    .async(loader.load(key))
+                    .withExecutorService(new DirectExecutor())
+                    .deliverTo(DeliveryTargets.immediate())
+                    .except(failures::add)
+                    .start();
+        }
+
+        assertThat(failures.size(), is(2));
+    }
+
+    @Test
+    public void loadsAloneAsPlainCallable() throws Exception {
+        final BatchLoader<Integer, String> loader = new BatchLoader<>(this::load);
+
+        assertThat(loader.load(7).call(), is("Value 7"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsKeys() {
+        // Shared, the key would be loaded alone.
+        new Builder<String>()
+                .async(new BatchLoader<>(this::load).load(1))
+                .key("user 1")
+                .start();
+    }
+
+    @NonNull
+    private Map<Integer, String> load(@NonNull Set<Integer> keys) {
+        calls.add(new HashSet<>(keys));
+        final Map<Integer, String> values = new HashMap<>();
+        for (Integer key : keys) {
+            values.put(key, "Value " + key);
+        }
+        return values;
+    }
+
+    private void start(
+            @NonNull BatchLoader<Integer, String> loader,
+            int key,
+            @NonNull CountDownLatch latch
+    ) {
+        new Builder<String>()
+                .async(loader.load(key))
+                .withExecutorService(new DirectExecutor())
+                .deliverTo(DeliveryTargets.immediate())
+                .onResult(result -> {
+                    results.put(key, result);
+                    latch.countDown();
+                })
+                .start();
+    }
+}
@@ -0,0 +1,105 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchingDispatcherTest {
+
+    private final List<Runnable> looper = new ArrayList<>();
+
+    private BatchingDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        // A looper that only queues the posted messages:
+        dispatcher = new BatchingDispatcher(looper::add);
+    }
+
+    @Test
+    public void burstCostsOneMessage() {
+        final AtomicInteger delivered = new AtomicInteger();
+
+        // Given a burst of deliveries:
+        for (int i = 0; i < 10; i++) {
+            dispatcher.enqueue(delivered::incrementAndGet);
+        }
+
+        // We expect a single looper message.
+        assertThat(looper.size(), is(1));
+
+        // When it runs, we expect every delivery to happen.
+        looper.remove(0).run();
+        assertThat(delivered.get(), is(10));
+        assertThat(looper.isEmpty(), is(true));
+    }
+
+    @Test
+    public void passIsLimitedByCount() {
+        final AtomicInteger delivered = new AtomicInteger();
+        dispatcher.setLimits(4, TimeUnit.SECONDS.toNanos(1));
+
+        // Given more deliveries than fit in a pass:
+        for (int i = 0; i < 10; i++) {
+            dispatcher.enqueue(delivered::incrementAndGet);
+        }
+
+        // When the first pass runs, we expect it to stop at the limit and post the rest.
+        looper.remove(0).run();
+        assertThat(delivered.get(), is(4));
+        assertThat(looper.size(), is(1));
+
+        // And the following passes to finish the work.
+        looper.remove(0).run();
+        looper.remove(0).run();
+        assertThat(delivered.get(), is(10));
+        assertThat(looper.isEmpty(), is(true));
+    }
+
+    @Test
+    public void passIsLimitedByTime() {
+        final AtomicInteger delivered = new AtomicInteger();
+        // A zero duration still allows a single delivery per pass.
+        dispatcher.setLimits(100, 0);
+
+        dispatcher.enqueue(delivered::incrementAndGet);
+        dispatcher.enqueue(delivered::incrementAndGet);
+
+        looper.remove(0).run();
+        assertThat(delivered.get(), is(1));
+        assertThat(looper.size(), is(1));
+    }
+
+    @Test
+    public void failingDeliveryDoesNotStall() {
+        final AtomicInteger delivered = new AtomicInteger();
+
+        // Given a delivery that throws, followed by another:
+        dispatcher.enqueue(() -> {
+            throw new IllegalStateException();
+        });
+        dispatcher.enqueue(delivered::incrementAndGet);
+
+        try {
+            looper.remove(0).run();
+        } catch (IllegalStateException expected) {
+            // The exception reaches the looper, as with a plain post.
+        }
+
+        // We expect the remaining delivery to be posted anyway.
+        looper.remove(0).run();
+        assertThat(delivered.get(), is(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void passWithoutDeliveries() {
+        dispatcher.setLimits(0, 0);
+    }
+}
@@ -17,6 +17,7 @@ import org.mockito.MockitoAnnotations;
 
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class BuilderTest {
 
@@ -40,7 +41,7 @@ public class BuilderTest {
     @Test
     public void async() {
         // Given a threader factory that returns the appropriate object:
-        Mockito.when(threaderFactory.from(any(), any(), any(), any(), any()))
+        Mockito.when(threaderFactory.from(any(), any(), any(), any(), any(), any()))
                 .thenReturn(threader);
 
         // Considering a builder:
@@ -59,7 +60,7 @@ public class BuilderTest {
         final ArgumentCaptor<Callable<Object>> argument = ArgumentCaptor.forClass(Callable.class);
 
         // We expect the threader to be built.
-        verify(threaderFactory).from(any(), any(), any(), argument.capture(), any());
+        verify(threaderFactory).from(any(), any(), any(), argument.capture(), any(), any());
         // And the callable used is the supplied.
         assertThat(argument.getValue(), is(callable));
         // And we expect the threader to be started.
@@ -69,7 +70,7 @@ public class BuilderTest {
     @Test(expected = NullPointerException.class)
     public void asyncNoCallable() {
         // Given a threader factory that returns the appropriate object:
-        Mockito.when(threaderFactory.from(any(), any(), any(), any(), any()))
+        Mockito.when(threaderFactory.from(any(), any(), any(), any(), any(), any()))
                 .thenReturn(threader);
 
         // Considering a builder:
@@ -89,7 +90,7 @@ public class BuilderTest {
     @Test
     public void post() {
         // Given a threader factory that returns the appropriate object:
-        Mockito.when(threaderFactory.from(any(), any(), any(), any(), any()))
+        Mockito.when(threaderFactory.from(any(), any(), any(), any(), any(), any()))
                 .thenReturn(threader);
 
         // Considering a builder:
@@ -110,7 +111,7 @@ public class BuilderTest {
                 ArgumentCaptor.forClass(OnConsumableResultListener.class);
 
         // We expect the threader to be built.
-        verify(threaderFactory).from(any(), any(), any(), any(), argument.capture());
+        verify(threaderFactory).from(any(), any(), any(), any(), argument.capture(), any());
         // And the result listener used is the supplied.
         assertThat(argument.getValue(), is(resultListener));
         // And we expect the threader to be started.
@@ -120,7 +121,7 @@ public class BuilderTest {
     @Test
     public void withExecutorService() {
         // Given a threader factory that returns the appropriate object:
-        Mockito.when(threaderFactory.from(any(), any(), any(), any(), any()))
+        Mockito.when(threaderFactory.from(any(), any(), any(), any(), any(), any()))
                 .thenReturn(threader);
 
         // Considering a builder:
@@ -139,7 +140,7 @@ public class BuilderTest {
         final ArgumentCaptor<ExecutorService> argument = ArgumentCaptor.forClass(ExecutorService.class);
 
         // We expect the threader to be built.
-        verify(threaderFactory).from(argument.capture(), any(), any(), any(), any());
+        verify(threaderFactory).from(argument.capture(), any(), any(), any(), any(), any());
         // And the executor used is the supplied.
         assertThat(argument.getValue(), is(executorService));
         // And we expect the threader to be started.
@@ -149,7 +150,7 @@ public class BuilderTest {
     @Test
     public void observe() {
         // Given a threader factory that returns the appropriate object:
-        Mockito.when(threaderFactory.from(any(), any(), any(), any(), any()))
+        Mockito.when(threaderFactory.from(any(), any(), any(), any(), any(), any()))
                 .thenReturn(threader);
 
         // Considering a builder:
@@ -169,7 +170,7 @@ public class BuilderTest {
         final ArgumentCaptor<LifecycleOwner> argument = ArgumentCaptor.forClass(LifecycleOwner.class);
 
         // We expect the threader to be built.
-        verify(threaderFactory).from(any(), any(), argument.capture(), any(), any());
+        verify(threaderFactory).from(any(), any(), argument.capture(), any(), any(), any());
         // And the lifecycle owner used is the supplied.
         assertThat(argument.getValue(), is(lifecycleOwner));
         // And we expect the threader to be started.
@@ -179,7 +180,7 @@ public class BuilderTest {
     @Test
     public void except() {
         // Given a threader factory that returns the appropriate object:
-        Mockito.when(threaderFactory.from(any(), any(), any(), any(), any()))
+        Mockito.when(threaderFactory.from(any(), any(), any(), any(), any(), any()))
                 .thenReturn(threader);
 
         // Considering a builder:
@@ -202,13 +203,79 @@ public class BuilderTest {
         final ArgumentCaptor<OnExceptionHandler> argument = ArgumentCaptor.forClass(OnExceptionHandler.class);
 
         // We expect the threader to be built.
-        verify(threaderFactory).from(any(), argument.capture(), any(), any(), any());
+        verify(threaderFactory).from(any(), argument.capture(), any(), any(), any(), any());
         // And the exception handler used is the supplied.
         assertThat(argument.getValue(), is(onExceptionHandler));
         // And we expect the threader to be started.
         verify(threader).start();
     }
 
+    @Test
+    public void then() throws Exception {
+        // Given a threader factory that returns the appropriate object:
+        Mockito.when(threaderFactory.from(any(), any(), any(), any(), any(), any()))
+                .thenReturn(threader);
+
+        // Considering a builder:
+        final Builder<String> builder = new Builder<>();
+        // <FOR-TEST-ONLY>
+        builder.setThreaderFactory(threaderFactory);
+
+        // Configured with several steps:
+        builder.async(() -> "Result")
+                .withExecutorService(executorService)
+                .then(String::length)
+                .thenAsync(length -> length * 2)
+                .start();
+
+        //noinspection unchecked
+        final ArgumentCaptor<Callable<Object>> argument = ArgumentCaptor.forClass(Callable.class);
+
+        // We expect the threader to be built with the steps in order, and the same executor.
+        verify(threaderFactory).from(
+                Mockito.eq(executorService), any(), any(), argument.capture(), any(), any());
+        assertThat(argument.getValue().call(), is((Object) 12));
+        // And we expect the threader to be started.
+        verify(threader).start();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void thenWithoutTask() {
+        new Builder<String>().then(String::length);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void keyedGather() {
+        // Shared, the gathered tasks would run one after the other.
+        Builder.allOf(() -> "a", () -> "b").key("ab").start();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cachedGatherWithStages() {
+        Builder.anyOf(() -> "a", () -> "b")
+                .then(String::length)
+                .key("ab")
+                .cache(new LruResultCache(4), 1, TimeUnit.MINUTES)
+                .start();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void limitedKeyedTask() {
+        // Shared, it would run without the limiter.
+        new Builder<String>()
+                .async(() -> "a")
+                .key("a")
+                .limit(new ConcurrencyLimiter(1, 1, 4))
+                .start();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void limitedGather() {
+        Builder.allOf(() -> "a", () -> "b")
+                .limit(new ConcurrencyLimiter(1, 1, 4))
+                .start();
+    }
+
     @Test
     public void start() {
     }
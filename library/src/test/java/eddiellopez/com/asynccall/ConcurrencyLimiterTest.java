@@ -0,0 +1,183 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class ConcurrencyLimiterTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final List<Runnable> queue = new ArrayList<>();
+
+    private final ExecutorService executor = capturing(queue);
+
+    @Test
+    public void holdsTheExcess() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 4);
+        final List<String> results = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            new Builder<String>()
+                    .async(() -> "Result")
+                    .withExecutorService(executor)
+                    .deliverTo(DeliveryTargets.immediate())
+                    .limit(limiter)
+                    .onResult(results::add)
+                    .start();
+        }
+
+        // Only one in the executor at a time.
+        assertThat(queue.size(), is(1));
+        assertThat(limiter.getQueued(), is(2));
+
+        queue.remove(0).run();
+        assertThat(results.size(), is(1));
+        assertThat(queue.size(), is(1));
+        assertThat(limiter.getInFlight(), is(1));
+
+        queue.remove(0).run();
+        queue.remove(0).run();
+        assertThat(results.size(), is(3));
+        assertThat(limiter.getInFlight(), is(0));
+        assertThat(limiter.getRunTime().getCount(), is(3L));
+    }
+
+    @Test
+    public void growsWhileLatencyHolds() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 8);
+        fill(limiter, 20);
+
+        for (int i = 0; i < 6; i++) {
+            limiter.release(0, MILLI);
+        }
+
+        assertTrue(limiter.getLimit() > 2);
+        assertThat(limiter.getInFlight(), is(limiter.getLimit()));
+    }
+
+    @Test
+    public void backsOffWhenLatencyGrows() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 1, 16);
+        fill(limiter, 8);
+
+        limiter.release(0, MILLI);
+        limiter.release(MILLI, 10 * MILLI);
+
+        assertThat(limiter.getLimit(), is(7));
+        assertThat(limiter.getAverageLatency(TimeUnit.MILLISECONDS), is(1L));
+    }
+
+    @Test
+    public void givesBackThePlaceOfCancelledTasks() throws InterruptedException {
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        final CountDownLatch blocked = new CountDownLatch(1);
+        try {
+            // Keep the only thread busy, so the tasks wait in the pool.
+            pool.execute(() -> {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            final ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1);
+            final TaskHandle admitted = start(pool, limiter, new ArrayList<>());
+            final TaskHandle waiting = start(pool, limiter, new ArrayList<>());
+            assertThat(limiter.getInFlight(), is(1));
+            assertThat(limiter.getQueued(), is(1));
+
+            // Cancelled, neither takes a place.
+            waiting.cancel(true);
+            admitted.cancel(true);
+            assertThat(limiter.getInFlight(), is(0));
+            assertThat(limiter.getQueued(), is(0));
+
+            // So the next one is let through.
+            final List<String> results = new ArrayList<>();
+            start(pool, limiter, results);
+            assertThat(limiter.getInFlight(), is(1));
+            blocked.countDown();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+            assertThat(results.size(), is(1));
+            assertThat(limiter.getInFlight(), is(0));
+        } finally {
+            blocked.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void measuresEachStageFromItsOwnAdmission() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 4);
+        final List<String> results = new ArrayList<>();
+        new Builder<String>()
+                .async(() -> {
+                    Thread.sleep(20);
+                    return "Result";
+                })
+                .thenAsync(result -> result + " later")
+                .withExecutorService(executor)
+                .deliverTo(DeliveryTargets.immediate())
+                .limit(limiter)
+                .onResult(results::add)
+                .start();
+
+        // The first stage submits the next one before it's done.
+        queue.remove(0).run();
+        assertThat(queue.size(), is(1));
+        assertTrue(limiter.getAverageLatency(TimeUnit.MILLISECONDS) >= 20);
+
+        queue.remove(0).run();
+        assertThat(results.get(0), is("Result later"));
+        assertThat(limiter.getInFlight(), is(0));
+        assertThat(limiter.getRunTime().getCount(), is(2L));
+    }
+
+    @NonNull
+    private static TaskHandle start(
+            @NonNull ExecutorService executor,
+            @NonNull ConcurrencyLimiter limiter,
+            @NonNull List<String> results
+    ) {
+        return new Builder<String>()
+                .async(() -> "Result")
+                .withExecutorService(executor)
+                .deliverTo(DeliveryTargets.immediate())
+                .limit(limiter)
+                .onResult(results::add)
+                .start();
+    }
+
+    private void fill(@NonNull ConcurrencyLimiter limiter, int tasks) {
+        for (int i = 0; i < tasks; i++) {
+            limiter.execute(TestThreader.create(executor, result -> {
+            }, new TaskOptions()), executor);
+        }
+    }
+
+    @NonNull
+    private static ExecutorService capturing(@NonNull List<Runnable> queue) {
+        final ExecutorService executor = mock(ExecutorService.class);
+        doAnswer(invocation -> queue.add(invocation.getArgument(0)))
+                .when(executor).execute(any(Runnable.class));
+        return executor;
+    }
+}
@@ -0,0 +1,51 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class DeliveryMonitorTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void reportsSlowDeliveries() {
+        final List<String> slow = new ArrayList<>();
+        final DeliveryMonitor monitor =
+                new DeliveryMonitor(8, TimeUnit.MILLISECONDS, (tag, nanos) -> slow.add(tag));
+
+        monitor.record("fast", 2 * MILLI);
+        monitor.record("slow", 20 * MILLI);
+
+        assertThat(slow.size(), is(1));
+        assertThat(slow.get(0), is("slow"));
+        assertThat(monitor.getAverage("slow", TimeUnit.MILLISECONDS), is(20L));
+        assertThat(monitor.getAverage("none", TimeUnit.MILLISECONDS), is(0L));
+    }
+
+    @Test
+    public void defersWhileTheAverageIsOverBudget() {
+        final DeliveryMonitor monitor =
+                new DeliveryMonitor(8, TimeUnit.MILLISECONDS, (tag, nanos) -> { });
+        monitor.record("feed", 40 * MILLI);
+
+        // Not deferred unless enabled:
+        assertFalse(monitor.shouldDefer("feed"));
+        monitor.setDeferOverBudget(true);
+        assertTrue(monitor.shouldDefer("feed"));
+        assertFalse(monitor.shouldDefer("other"));
+
+        // Once the deliveries are fast again, the average falls under the budget.
+        for (int i = 0; i < 20; i++) {
+            monitor.record("feed", MILLI);
+        }
+        assertFalse(monitor.shouldDefer("feed"));
+    }
+}
@@ -0,0 +1,65 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class DeliveryTargetTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    // A target that only queues the deliveries, to run them when the test decides:
+    private final BlockingQueue<Runnable> target = new LinkedBlockingQueue<>();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void resultGoesToTheTarget() throws InterruptedException {
+        final AtomicReference<String> delivered = new AtomicReference<>();
+
+        new Builder<String>()
+                .async(() -> "Result")
+                .withExecutorService(executor)
+                .deliverTo(target::add)
+                .onResult(delivered::set)
+                .start();
+
+        // We expect the delivery in the target, and nothing before it runs.
+        final Runnable delivery = target.poll(5, TimeUnit.SECONDS);
+        assertThat(delivery, is(notNullValue()));
+        assertThat(delivered.get() == null, is(true));
+
+        delivery.run();
+        assertThat(delivered.get(), is("Result"));
+    }
+
+    @Test
+    public void exceptionGoesToTheTarget() throws InterruptedException {
+        final AtomicReference<Exception> delivered = new AtomicReference<>();
+
+        new Builder<String>()
+                .async(() -> {
+                    throw new IllegalStateException();
+                })
+                .withExecutorService(executor)
+                .deliverTo(target::add)
+                .except(delivered::set)
+                .start();
+
+        target.poll(5, TimeUnit.SECONDS).run();
+        assertThat(delivered.get() instanceof IllegalStateException, is(true));
+    }
+}
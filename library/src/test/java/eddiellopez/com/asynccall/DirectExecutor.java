@@ -0,0 +1,44 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each task right away, in the calling thread.
+ */
+final class DirectExecutor extends AbstractExecutorService {
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        command.run();
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    @NonNull
+    @Override
+    public List<Runnable> shutdownNow() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return false;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return false;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) {
+        return false;
+    }
+}
@@ -0,0 +1,134 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DiskResultCacheTest {
+
+    private static final int SEGMENT_BYTES = 256;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void survivesTheProcess() throws IOException {
+        final File directory = folder.newFolder();
+        final DiskResultCache<String> cache = cache(directory);
+        cache.put("user", "Eddie", 60_000);
+        cache.put("gone", "Soon", 60_000);
+        cache.invalidate("gone");
+
+        // A new instance reads the same segments.
+        final DiskResultCache<String> reopened = cache(directory);
+        final ResultCache.Entry entry = reopened.get("user");
+        assertThat(entry.getValue(), is((Object) "Eddie"));
+        assertTrue(entry.isFresh());
+        assertThat(reopened.get("gone"), is(nullValue()));
+        assertThat(reopened.get("never"), is(nullValue()));
+    }
+
+    @Test
+    public void skipsExpiredResults() throws IOException {
+        final DiskResultCache<String> cache = cache(folder.newFolder());
+        cache.put("user", "Eddie", -1);
+
+        assertThat(cache.get("user"), is(nullValue()));
+    }
+
+    @Test
+    public void longTimeToLiveSurvivesCompaction() throws IOException {
+        final DiskResultCache<String> cache = cache(folder.newFolder());
+        cache.put("user", "Eddie", Long.MAX_VALUE);
+
+        // When compacted, over and over:
+        for (int i = 0; i < 200; i++) {
+            cache.put("key" + (i % 4), "Value " + i, 60_000);
+        }
+
+        // We expect its expiry not to overflow into the past.
+        assertTrue(cache.get("user").isFresh());
+    }
+
+    @Test
+    public void hitSkipsTheTask() throws IOException {
+        final DiskResultCache<String> cache = cache(folder.newFolder());
+        cache.put("user", "Eddie", 60_000);
+        final AtomicInteger calls = new AtomicInteger();
+        final List<String> results = new ArrayList<>();
+
+        // Given a task whose result is on disk:
+        new Builder<String>()
+                .async(() -> "Loaded " + calls.incrementAndGet())
+                .key("user")
+                .diskCache(cache, 1, TimeUnit.MINUTES)
+                .withExecutorService(new DirectExecutor())
+                .deliverTo(DeliveryTargets.immediate())
+                .onResult(results::add)
+                .start();
+
+        // We expect the result read from disk delivered, without running the task.
+        assertThat(calls.get(), is(0));
+        assertThat(results, is(Collections.singletonList("Eddie")));
+    }
+
+    @Test
+    public void missRunsTheTaskAndStores() throws IOException {
+        final DiskResultCache<String> cache = cache(folder.newFolder());
+        final AtomicInteger calls = new AtomicInteger();
+        final List<String> results = new ArrayList<>();
+
+        // Given a task whose result isn't on disk:
+        new Builder<String>()
+                .async(() -> "Loaded " + calls.incrementAndGet())
+                .key("user")
+                .diskCache(cache, 1, TimeUnit.MINUTES)
+                .withExecutorService(new DirectExecutor())
+                .deliverTo(DeliveryTargets.immediate())
+                .onResult(results::add)
+                .start();
+
+        // We expect it to run once, and its result delivered and stored.
+        assertThat(calls.get(), is(1));
+        assertThat(results, is(Collections.singletonList("Loaded 1")));
+        assertThat(cache.get("user").getValue(), is((Object) "Loaded 1"));
+    }
+
+    @Test
+    public void compactsPastTheMaximumSize() throws IOException {
+        final File directory = folder.newFolder();
+        final DiskResultCache<String> cache = cache(directory);
+
+        // Overwriting the same keys, over and over.
+        for (int i = 0; i < 200; i++) {
+            cache.put("key" + (i % 4), "Value " + i, 60_000);
+        }
+
+        // We expect the latest values, in no more than the maximum size.
+        assertThat(cache.get("key3").getValue(), is((Object) "Value 199"));
+        assertThat(cache.get("key0").getValue(), is((Object) "Value 196"));
+        assertTrue(directory.listFiles().length <= 4);
+        assertThat(cache(directory).get("key1").getValue(), is((Object) "Value 197"));
+    }
+
+    @NonNull
+    private static DiskResultCache<String> cache(@NonNull File directory) {
+        return new DiskResultCache<>(
+                directory, 4 * SEGMENT_BYTES, SEGMENT_BYTES, DiskResultCache.serializable());
+    }
+}
@@ -0,0 +1,213 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class GatherTest {
+
+    private final List<Runnable> queue = new ArrayList<>();
+
+    @Mock
+    private ExecutorService executor;
+
+    @Mock
+    private OnExceptionHandler onExceptionHandler;
+
+    @Mock
+    private DeliveryProcedure<Object> deliveryProcedure;
+
+    private Threader<Object> threader;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        threader = new ObjectThreader();
+    }
+
+    @Test
+    public void allOf() {
+        // Given three tasks gathered:
+        final Gather<List<String>> gather = Gather.all(tasks(() -> "a", () -> "b", () -> "c"));
+
+        gather.start(threader, queue::add);
+
+        // We expect each one to be submitted on its own.
+        assertThat(queue.size(), is(3));
+
+        // When they finish in any order:
+        queue.get(2).run();
+        queue.get(0).run();
+        verify(deliveryProcedure, never()).deliver(any());
+        queue.get(1).run();
+
+        // We expect all the results in the order of the tasks, once.
+        verify(deliveryProcedure).deliver(Arrays.asList("a", "b", "c"));
+    }
+
+    @Test
+    public void allOfFailsWithFirstException() {
+        final Gather<List<String>> gather = Gather.all(tasks(
+                () -> "a",
+                () -> {
+                    throw new IllegalStateException();
+                }));
+
+        gather.start(threader, queue::add);
+        queue.get(1).run();
+        queue.get(0).run();
+
+        final ArgumentCaptor<Exception> exception = ArgumentCaptor.forClass(Exception.class);
+        verify(onExceptionHandler).onFailure(exception.capture());
+        assertThat(exception.getValue(), is(instanceOf(IllegalStateException.class)));
+        verify(deliveryProcedure, never()).deliver(any());
+    }
+
+    @Test
+    public void anyOfTakesFirstSuccess() {
+        final Gather<String> gather = Gather.any(tasks(
+                () -> {
+                    throw new IllegalStateException();
+                },
+                () -> "b",
+                () -> "c"));
+
+        gather.start(threader, queue::add);
+        queue.get(0).run();
+        queue.get(2).run();
+        queue.get(1).run();
+
+        verify(deliveryProcedure).deliver("c");
+        verify(onExceptionHandler, never()).onFailure(any());
+    }
+
+    @Test
+    public void anyOfFailsWhenAllFail() {
+        final Gather<String> gather = Gather.any(tasks(
+                () -> {
+                    throw new IllegalStateException();
+                },
+                () -> {
+                    throw new UnsupportedOperationException();
+                }));
+
+        gather.start(threader, queue::add);
+        queue.get(0).run();
+        queue.get(1).run();
+
+        final ArgumentCaptor<Exception> exception = ArgumentCaptor.forClass(Exception.class);
+        verify(onExceptionHandler).onFailure(exception.capture());
+        assertThat(exception.getValue(), is(instanceOf(IllegalStateException.class)));
+    }
+
+    @Test
+    public void cancelled() {
+        final Gather<List<String>> gather = Gather.all(tasks(() -> "a", () -> "b"));
+        gather.start(threader, queue::add);
+
+        // When cancelled before the tasks run:
+        threader.cancel(true);
+        queue.get(0).run();
+        queue.get(1).run();
+
+        // We expect nothing delivered.
+        verify(deliveryProcedure, never()).deliver(any());
+    }
+
+    @Test
+    public void cancelInterruptsRunningTasks() throws InterruptedException {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final Gather<List<String>> gather = Gather.all(tasks(() -> {
+            running.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "a";
+        }));
+        gather.start(threader, queue::add);
+
+        // Given a task running:
+        new Thread(queue.get(0)).start();
+        assertTrue(running.await(2, TimeUnit.SECONDS));
+
+        // When cancelled, allowing interruptions...
+        threader.cancel(true);
+
+        // We expect it interrupted, and nothing delivered.
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+        verify(deliveryProcedure, never()).deliver(any());
+    }
+
+    @Test
+    public void cancelLetsRunningTasksFinish() throws InterruptedException {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        final Gather<List<String>> gather = Gather.all(tasks(() -> {
+            running.countDown();
+            release.await();
+            interrupted.set(Thread.currentThread().isInterrupted());
+            return "a";
+        }));
+        gather.start(threader, queue::add);
+
+        // Given a task running:
+        final Thread thread = new Thread(queue.get(0));
+        thread.start();
+        assertTrue(running.await(2, TimeUnit.SECONDS));
+
+        // When cancelled without interruptions...
+        threader.cancel(false);
+        release.countDown();
+        thread.join(TimeUnit.SECONDS.toMillis(2));
+
+        // We expect it to finish uninterrupted, ignored.
+        assertThat(interrupted.get(), is(false));
+        verify(deliveryProcedure, never()).deliver(any());
+    }
+
+    @Test
+    public void sequentialCall() throws Exception {
+        assertThat(Gather.all(tasks(() -> "a", () -> "b")).call(), is(Arrays.asList("a", "b")));
+        assertThat(Gather.any(tasks(() -> "a", () -> "b")).call(), is("a"));
+    }
+
+    @SafeVarargs
+    private static Callable<String>[] tasks(Callable<String>... tasks) {
+        return tasks;
+    }
+
+    private class ObjectThreader extends Threader<Object> {
+
+        ObjectThreader() {
+            super(executor, onExceptionHandler, null, deliveryProcedure);
+        }
+
+        @Override
+        public void start() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
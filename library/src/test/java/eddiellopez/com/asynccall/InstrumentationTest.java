@@ -0,0 +1,115 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class InstrumentationTest {
+
+    private final List<String> steps = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        Instrumentation.install(null);
+    }
+
+    @Test
+    public void followsEveryStep() {
+        Instrumentation.install(new Recorder());
+
+        start("Load");
+
+        assertThat(steps, is(Arrays.asList(
+                "enqueued Load", "started Load", "finished Load SUCCESS", "delivered Load")));
+    }
+
+    @Test
+    public void aggregatesByTag() {
+        final HistogramInstrumentation histograms = new HistogramInstrumentation();
+        Instrumentation.install(histograms);
+
+        start("Load");
+        start("Load");
+
+        final HistogramInstrumentation.Stats stats = histograms.getStats("Load");
+        assertThat(stats, is(notNullValue()));
+        assertThat(stats.getRun().getCount(), is(2L));
+        assertThat(stats.getQueueWait().getCount(), is(2L));
+        assertThat(stats.getDelivery().getCount(), is(2L));
+        assertTrue(stats.getRun().getPercentile(100, TimeUnit.NANOSECONDS) >= 0);
+    }
+
+    @Test
+    public void keyedTasksOnlyCountTheirDelivery() {
+        final HistogramInstrumentation histograms = new HistogramInstrumentation();
+        Instrumentation.install(histograms);
+
+        new Builder<String>()
+                .async(() -> "Result")
+                .withExecutorService(new DirectExecutor())
+                .deliverTo(DeliveryTargets.immediate())
+                .tag("Load")
+                .key("user")
+                .start();
+
+        final HistogramInstrumentation.Stats stats = histograms.getStats("Load");
+        assertThat(stats, is(notNullValue()));
+        assertThat(stats.getRun().getCount(), is(0L));
+        assertThat(stats.getQueueWait().getCount(), is(0L));
+        assertThat(stats.getDelivery().getCount(), is(1L));
+    }
+
+    @Test
+    public void nothingWithoutInstrumentation() {
+        start("Load");
+
+        assertThat(steps.isEmpty(), is(true));
+    }
+
+    private static void start(@NonNull String tag) {
+        new Builder<String>()
+                .async(() -> "Result")
+                .withExecutorService(new DirectExecutor())
+                .deliverTo(DeliveryTargets.immediate())
+                .tag(tag)
+                .start();
+    }
+
+    private final class Recorder implements TaskInstrumentation {
+
+        @Override
+        public void onEnqueued(@NonNull TaskSpan span) {
+            steps.add("enqueued " + span.getTag());
+        }
+
+        @Override
+        public void onStarted(@NonNull TaskSpan span) {
+            steps.add("started " + span.getTag());
+        }
+
+        @Override
+        public void onFinished(@NonNull TaskSpan span) {
+            steps.add("finished " + span.getTag() + " " + span.getOutcome());
+        }
+
+        @Override
+        public void onDelivered(@NonNull TaskSpan span) {
+            steps.add("delivered " + span.getTag());
+        }
+    }
+
+    /**
+     * Runs the tasks in the calling thread.
+     */
+}
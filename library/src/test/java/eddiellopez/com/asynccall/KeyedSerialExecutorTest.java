@@ -0,0 +1,92 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class KeyedSerialExecutorTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    private final KeyedSerialExecutor executor = new KeyedSerialExecutor(pool);
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void runsTasksOfAKeyInOrder() throws InterruptedException {
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1000);
+
+        for (int i = 0; i < 1000; i++) {
+            final int index = i;
+            executor.execute("entity", () -> {
+                if (running.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                order.add(index);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertThat(overlaps.get(), is(0));
+        for (int i = 0; i < 1000; i++) {
+            assertThat(order.get(i), is(i));
+        }
+    }
+
+    @Test
+    public void runsKeysInParallel() throws InterruptedException {
+        final CountDownLatch other = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(2);
+
+        // The first key waits for the second one, which must not wait for the first.
+        executor.forKey("first").execute(() -> {
+            try {
+                if (other.await(5, TimeUnit.SECONDS)) {
+                    done.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.forKey("second").execute(() -> {
+            other.countDown();
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void dropsIdleKeys() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        executor.execute("entity", done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        // The queue is dropped right after its last task.
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.activeKeys() > 0 && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+        assertThat(executor.activeKeys(), is(0));
+    }
+}
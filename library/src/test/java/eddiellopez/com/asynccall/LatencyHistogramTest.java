@@ -0,0 +1,48 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsContainTheirValues() {
+        for (long value = 0; value < 100_000; value += 7) {
+            final int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(value <= LatencyHistogram.upperBoundOf(bucket));
+            assertTrue(bucket == 0 || value > LatencyHistogram.upperBoundOf(bucket - 1));
+        }
+    }
+
+    @Test
+    public void percentilesAreClose() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        // Given the durations from 1 to 1000 microseconds:
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        // We expect the percentiles within the precision of a bucket.
+        assertThat(histogram.getCount(), is(1000L));
+        final long median = histogram.getPercentile(50, TimeUnit.MICROSECONDS);
+        assertTrue(median >= 500 && median <= 500 * 1.125);
+        final long p99 = histogram.getPercentile(99, TimeUnit.MICROSECONDS);
+        assertTrue(p99 >= 990 && p99 <= 990 * 1.125);
+    }
+
+    @Test
+    public void empty() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.reset();
+
+        assertThat(histogram.getPercentile(90, TimeUnit.NANOSECONDS), is(0L));
+        assertThat(histogram.getMean(TimeUnit.NANOSECONDS), is(0L));
+    }
+}
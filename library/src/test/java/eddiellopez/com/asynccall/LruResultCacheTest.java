@@ -0,0 +1,97 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class LruResultCacheTest {
+
+    private static final long TTL = 60_000;
+
+    @Test
+    public void hit() {
+        final LruResultCache cache = new LruResultCache(2);
+        cache.put("key", "Result", TTL);
+
+        final ResultCache.Entry entry = cache.get("key");
+
+        assertThat(entry, is(notNullValue()));
+        assertThat(entry.getValue(), is("Result"));
+        assertThat(entry.isFresh(), is(true));
+    }
+
+    @Test
+    public void staleEntriesAreKept() {
+        final LruResultCache cache = new LruResultCache(2);
+
+        // Given a result that is never fresh:
+        cache.put("key", "Result", 0);
+
+        // We expect it to be kept, as stale.
+        final ResultCache.Entry entry = cache.get("key");
+        assertThat(entry, is(notNullValue()));
+        assertThat(entry.isFresh(), is(false));
+    }
+
+    @Test
+    public void longTimeToLiveStaysFresh() {
+        final LruResultCache cache = new LruResultCache(2);
+
+        // Given a time to live past the range of nanoseconds:
+        cache.put("key", "Result", Long.MAX_VALUE);
+
+        // We expect it not to overflow into the past.
+        assertThat(cache.get("key").isFresh(), is(true));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        final LruResultCache cache = new LruResultCache(2);
+        cache.put("first", 1, TTL);
+        cache.put("second", 2, TTL);
+
+        // Given the first one is used:
+        cache.get("first");
+
+        // When a third one is cached:
+        cache.put("third", 3, TTL);
+
+        // We expect the least recently used to be evicted.
+        assertThat(cache.size(), is(2));
+        assertThat(cache.get("second"), is(nullValue()));
+        assertThat(cache.get("first"), is(notNullValue()));
+        assertThat(cache.get("third"), is(notNullValue()));
+    }
+
+    @Test
+    public void evictsByWeight() {
+        final LruResultCache cache = new LruResultCache(10,
+                (key, value) -> ((String) value).length());
+        cache.put("first", "12345", TTL);
+        cache.put("second", "1234", TTL);
+        assertThat(cache.weight(), is(9L));
+
+        // When exceeding the weight:
+        cache.put("third", "123", TTL);
+
+        // We expect enough of the oldest entries to be evicted.
+        assertThat(cache.get("first"), is(nullValue()));
+        assertThat(cache.weight(), is(7L));
+    }
+
+    @Test
+    public void replaceAndInvalidate() {
+        final LruResultCache cache = new LruResultCache(10,
+                (key, value) -> ((String) value).length());
+        cache.put("key", "12345", TTL);
+        cache.put("key", "12", TTL);
+        assertThat(cache.weight(), is(2L));
+
+        cache.invalidate("key");
+        assertThat(cache.get("key"), is(nullValue()));
+        assertThat(cache.weight(), is(0L));
+    }
+}
@@ -0,0 +1,168 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class MainThreadDispatcherTest {
+
+    private static final int WARM_UP = 20_000;
+    private static final int DELIVERIES = 100_000;
+    private static final String RESULT = "Result";
+
+    @Mock
+    private ExecutorService executor;
+
+    private MainThreadDispatcher dispatcher;
+
+    private TestThreader threader;
+
+    private int delivered;
+
+    private int failed;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        // A dispatcher that runs the deliveries right away, as a looper would later:
+        dispatcher = new MainThreadDispatcher(Runnable::run);
+        threader = new TestThreader(
+                executor,
+                exception -> failed++,
+                null,
+                result -> delivered++
+        );
+    }
+
+    @Test
+    public void dispatchResult() {
+        dispatcher.dispatchResult(threader, RESULT, false);
+
+        assertThat(delivered, is(1));
+        assertThat(failed, is(0));
+    }
+
+    @Test
+    public void dispatchFailure() {
+        dispatcher.dispatchFailure(threader, new IllegalStateException(), false);
+
+        assertThat(delivered, is(0));
+        assertThat(failed, is(1));
+    }
+
+    @Test
+    public void defersOverBudgetDeliveriesOnce() {
+        final List<Runnable> posted = new ArrayList<>();
+        final List<Runnable> frames = new ArrayList<>();
+        final MainThreadDispatcher dispatcher =
+                new MainThreadDispatcher(posted::add, new FramePlatform(frames));
+        final DeliveryMonitor monitor =
+                new DeliveryMonitor(8, TimeUnit.MILLISECONDS, (tag, nanos) -> { });
+        monitor.setDeferOverBudget(true);
+        monitor.record("feed", TimeUnit.MILLISECONDS.toNanos(40));
+        DeliveryMonitor.install(monitor);
+        try {
+            // Given a delivery of a tag over its budget:
+            final TaskOptions options = new TaskOptions();
+            options.tag = "feed";
+            dispatcher.dispatchResult(
+                    TestThreader.create(executor, result -> delivered++, options), RESULT, false);
+
+            // We expect it moved to the next frame, when its turn comes.
+            posted.remove(0).run();
+            assertThat(delivered, is(0));
+            assertThat(frames.size(), is(1));
+
+            // And delivered then, though still over budget.
+            frames.remove(0).run();
+            assertThat(delivered, is(1));
+            assertThat(frames.size(), is(0));
+        } finally {
+            DeliveryMonitor.install(null);
+        }
+    }
+
+    @Test
+    public void deliveryDoesNotAllocate() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue("Allocation measurement unsupported by this JVM",
+                bean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        final long threadId = Thread.currentThread().getId();
+
+        // Given the pool is warm:
+        for (int i = 0; i < WARM_UP; i++) {
+            dispatcher.dispatchResult(threader, RESULT, false);
+        }
+
+        // When delivering many results:
+        final long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < DELIVERIES; i++) {
+            dispatcher.dispatchResult(threader, RESULT, false);
+        }
+        final long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        // We expect every delivery to happen, allocating less than a byte on average.
+        assertThat(delivered, is(WARM_UP + DELIVERIES));
+        assertTrue("Allocated " + allocated + " bytes for " + DELIVERIES + " deliveries",
+                allocated < DELIVERIES);
+    }
+
+    /**
+     * A UI Thread whose frames are queued.
+     */
+    private static final class FramePlatform extends Platform {
+
+        @NonNull
+        private final List<Runnable> frames;
+
+        FramePlatform(@NonNull List<Runnable> frames) {
+            this.frames = frames;
+        }
+
+        @Override
+        boolean isAndroid() {
+            return false;
+        }
+
+        @Override
+        boolean isMainThread() {
+            return true;
+        }
+
+        @NonNull
+        @Override
+        Executor mainThread() {
+            return Runnable::run;
+        }
+
+        @Override
+        void onNextFrame(@NonNull Runnable runnable) {
+            frames.add(runnable);
+        }
+
+        @Override
+        boolean isApiAvailable(int apiLevel) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package eddiellopez.com.asynccall;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A timer that only moves when told to, running the actions as they become due.
+ */
+final class ManualTimer implements Scheduler.Timer {
+
+    private final List<Scheduled> scheduled = new ArrayList<>();
+
+    private long now;
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    @NonNull
+    @Override
+    public Future<?> schedule(@NonNull Runnable action, long delayNanos) {
+        final Scheduled task = new Scheduled(action, now + delayNanos);
+        scheduled.add(task);
+        return task;
+    }
+
+    void advance(long time, @NonNull TimeUnit unit) {
+        now += unit.toNanos(time);
+        while (true) {
+            Scheduled due = null;
+            for (Scheduled task : scheduled) {
+                if (task.atNanos <= now && (due == null || task.atNanos < due.atNanos)) {
+                    due = task;
+                }
+            }
+            if (due == null) {
+                return;
+            }
+            scheduled.remove(due);
+            due.run();
+        }
+    }
+
+    /**
+     * @return The number of actions waiting, not cancelled.
+     */
+    int pending() {
+        int pending = 0;
+        for (Scheduled task : scheduled) {
+            if (!task.isCancelled()) {
+                pending++;
+            }
+        }
+        return pending;
+    }
+
+    private static final class Scheduled extends FutureTask<Void> {
+
+        final long atNanos;
+
+        Scheduled(@NonNull Runnable action, long atNanos) {
+            super(action, null);
+            this.atNanos = atNanos;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class PriorityExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private PriorityExecutor executor;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void higherLanesFirst() {
+        final LaneQueue queue = new LaneQueue(10);
+        final Task background = new Task(Priority.BACKGROUND);
+        final Task normal = new Task(Priority.NORMAL);
+        final Task critical = new Task(Priority.UI_CRITICAL);
+        final Runnable plain = () -> { };
+
+        queue.offer(background);
+        queue.offer(normal);
+        queue.offer(critical);
+        queue.offer(plain);
+
+        // We expect the higher lanes first, and submission order within a lane.
+        assertThat(queue.poll(), is(sameInstance(critical)));
+        assertThat(queue.poll(), is(sameInstance(normal)));
+        assertThat(queue.poll(), is(sameInstance(plain)));
+        assertThat(queue.poll(), is(sameInstance(background)));
+        assertThat(queue.poll(), is(nullValue()));
+    }
+
+    @Test
+    public void bounded() {
+        final LaneQueue queue = new LaneQueue(2);
+
+        assertThat(queue.offer(new Task(Priority.NORMAL)), is(true));
+        assertThat(queue.offer(new Task(Priority.UI_CRITICAL)), is(true));
+        // The capacity is shared by all lanes.
+        assertThat(queue.offer(new Task(Priority.BACKGROUND)), is(false));
+        assertThat(queue.remainingCapacity(), is(0));
+    }
+
+    @Test
+    public void dropsOldestOfLowestLane() {
+        final LaneQueue queue = new LaneQueue(10);
+        final Task oldest = new Task(Priority.BACKGROUND);
+        queue.offer(new Task(Priority.NORMAL));
+        queue.offer(oldest);
+        queue.offer(new Task(Priority.BACKGROUND));
+
+        // A background task can't drop anything higher:
+        assertThat(queue.pollOldestNotAbove(Priority.BACKGROUND), is(sameInstance(oldest)));
+        queue.pollOldestNotAbove(Priority.BACKGROUND);
+        assertThat(queue.pollOldestNotAbove(Priority.BACKGROUND), is(nullValue()));
+        assertThat(queue.size(), is(1));
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void failFast() {
+        // Given a saturated executor:
+        saturate(Priority.NORMAL);
+
+        // When more work arrives, we expect it to be rejected.
+        executor.execute(new Task(Priority.NORMAL));
+    }
+
+    @Test
+    public void dropOldest() {
+        // Given a saturated executor, with a background task queued:
+        final Task queued = saturate(Priority.BACKGROUND);
+        executor.setRejectionPolicy(RejectionPolicy.DROP_OLDEST);
+
+        // When more work arrives:
+        final Task newer = new Task(Priority.NORMAL);
+        executor.execute(newer);
+
+        // We expect the queued task to fail, making room for the newer one.
+        assertThat(queued.rejected, is(true));
+        assertThat(executor.getQueue().peek(), is(sameInstance(newer)));
+    }
+
+    @Test
+    public void droppedRefreshLetsTheNextOneThrough() {
+        final ResultCache cache = new LruResultCache(4);
+        occupy();
+        executor.setRejectionPolicy(RejectionPolicy.DROP_OLDEST);
+
+        // Given a refresh queued in the saturated executor:
+        new CachingCallable<>(() -> "Dropped", cache, "key", 0, Priority.BACKGROUND)
+                .refresh(executor);
+
+        // When a newer task drops it:
+        executor.execute(new Task(Priority.NORMAL));
+
+        // We expect the next refresh of the key to run.
+        new CachingCallable<>(() -> "Fresh", cache, "key", 0, Priority.NORMAL)
+                .refresh(new DirectExecutor());
+        assertThat(cache.get("key").getValue(), is("Fresh"));
+    }
+
+    @Test
+    public void callerRuns() {
+        saturate(Priority.NORMAL);
+        executor.setRejectionPolicy(RejectionPolicy.CALLER_RUNS);
+
+        final Task task = new Task(Priority.NORMAL);
+        executor.execute(task);
+
+        assertThat(task.ran, is(true));
+    }
+
+    /**
+     * Occupies the only thread, and the only place in the queue.
+     */
+    private Task saturate(Priority queuedPriority) {
+        occupy();
+        final Task queued = new Task(queuedPriority);
+        executor.execute(queued);
+        return queued;
+    }
+
+    /**
+     * Occupies the only thread, leaving the only place in the queue.
+     */
+    private void occupy() {
+        executor = new PriorityExecutor(1, 1);
+        final CountDownLatch running = new CountDownLatch(1);
+        executor.execute(() -> {
+            running.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                // Done.
+            }
+        });
+        try {
+            assertThat(running.await(5, TimeUnit.SECONDS), is(true));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static final class Task implements PrioritizedTask {
+
+        private final Priority priority;
+
+        volatile boolean ran;
+
+        volatile boolean rejected;
+
+        Task(Priority priority) {
+            this.priority = priority;
+        }
+
+        @NonNull
+        @Override
+        public Priority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public void reject(@NonNull RejectedExecutionException exception) {
+            rejected = true;
+        }
+
+        @Override
+        public void run() {
+            ran = true;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ProgressStreamTest {
+
+    private final List<Runnable> frames = new ArrayList<>();
+
+    private final List<List<Integer>> updates = new ArrayList<>();
+
+    private TestThreader threader;
+
+    private ProgressStream<String, Integer> stream;
+
+    @Before
+    public void setUp() {
+        threader = TestThreader.create(new TaskOptions());
+        // A task publishing three chunks, and frames that only queue the flushes:
+        stream = new ProgressStream<>(publisher -> {
+            for (int i = 1; i <= 3; i++) {
+                publisher.publish(i);
+            }
+            return "Done";
+        }, updates::add);
+    }
+
+    @Test
+    public void chunksAreCoalescedPerFrame() throws Exception {
+        stream.bind(threader, frames::add, false);
+
+        // When the task publishes a burst of chunks:
+        assertThat(stream.call(), is("Done"));
+
+        // We expect a single frame to deliver them all, in order.
+        assertThat(frames.size(), is(1));
+        frames.remove(0).run();
+        assertThat(updates.size(), is(1));
+        assertThat(updates.get(0), is(Arrays.asList(1, 2, 3)));
+    }
+
+    @Test
+    public void chunksAreDroppedWhileStopped() throws Exception {
+        stream.bind(threader, frames::add, false);
+
+        // Given the owner stops:
+        threader.onStopped();
+        stream.call();
+        frames.remove(0).run();
+
+        // We expect nothing delivered, nor later.
+        threader.onStarted();
+        stream.flush();
+        assertThat(updates.isEmpty(), is(true));
+    }
+
+    @Test
+    public void stickyChunksAreDeliveredOnStart() throws Exception {
+        stream.bind(threader, frames::add, true);
+
+        // Given the owner stops:
+        threader.onStopped();
+        stream.call();
+        frames.remove(0).run();
+        assertThat(updates.isEmpty(), is(true));
+
+        // When the owner starts, we expect the chunks.
+        threader.onStarted();
+        stream.flush();
+        assertThat(updates.get(0), is(Arrays.asList(1, 2, 3)));
+    }
+
+    @Test
+    public void nothingAfterClosing() throws Exception {
+        stream.bind(threader, frames::add, false);
+        stream.call();
+
+        // When closed before the frame:
+        stream.close();
+        frames.remove(0).run();
+
+        // We expect nothing delivered.
+        assertThat(updates.isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,61 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void delayGrowsExponentially() {
+        final RetryPolicy policy = RetryPolicy.exponential(5, 100, TimeUnit.MILLISECONDS)
+                .withJitter(0);
+
+        assertThat(policy.delayMillis(1), is(100L));
+        assertThat(policy.delayMillis(2), is(200L));
+        assertThat(policy.delayMillis(3), is(400L));
+    }
+
+    @Test
+    public void delayIsCapped() {
+        final RetryPolicy policy = RetryPolicy.exponential(10, 100, TimeUnit.MILLISECONDS)
+                .withMultiplier(10)
+                .withMaxDelay(1, TimeUnit.SECONDS)
+                .withJitter(0);
+
+        assertThat(policy.delayMillis(5), is(1000L));
+    }
+
+    @Test
+    public void jitterShortensTheDelay() {
+        final RetryPolicy policy = RetryPolicy.exponential(5, 1000, TimeUnit.MILLISECONDS)
+                .withJitter(0.5);
+
+        for (int i = 0; i < 100; i++) {
+            final long delay = policy.delayMillis(1);
+            assertTrue(delay >= 500 && delay <= 1000);
+        }
+    }
+
+    @Test
+    public void attemptsAreLimited() {
+        final RetryPolicy policy = RetryPolicy.exponential(3, 1, TimeUnit.MILLISECONDS);
+
+        assertThat(policy.shouldRetry(new IOException(), 2), is(true));
+        assertThat(policy.shouldRetry(new IOException(), 3), is(false));
+    }
+
+    @Test
+    public void onlyRetryableExceptions() {
+        final RetryPolicy policy = RetryPolicy.exponential(3, 1, TimeUnit.MILLISECONDS)
+                .retryIf(exception -> exception instanceof IOException);
+
+        assertThat(policy.shouldRetry(new IOException(), 1), is(true));
+        assertThat(policy.shouldRetry(new IllegalStateException(), 1), is(false));
+    }
+}
@@ -0,0 +1,121 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SharedCallTest {
+
+    private static final String KEY = "posts";
+
+    private final List<Runnable> queue = new ArrayList<>();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final Callable<String> callable = () -> "Result " + calls.incrementAndGet();
+
+    @Mock
+    private DeliveryProcedure<String> first;
+
+    @Mock
+    private DeliveryProcedure<String> second;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void concurrentTasksShareOneCall() {
+        // Given two threaders joining under the same key, before the call runs:
+        SharedCall.join(KEY, TestThreader.create(first), callable, queue::add);
+        SharedCall.join(KEY, TestThreader.create(second), callable, queue::add);
+
+        // We expect a single call to be submitted.
+        assertThat(queue.size(), is(1));
+        assertThat(SharedCall.isInFlight(KEY), is(true));
+
+        // When it runs, we expect both to receive its only result.
+        queue.remove(0).run();
+        assertThat(calls.get(), is(1));
+        verify(first).deliver("Result 1");
+        verify(second).deliver("Result 1");
+        assertThat(SharedCall.isInFlight(KEY), is(false));
+    }
+
+    @Test
+    public void finishedCallIsNotShared() {
+        // Given a call already finished:
+        SharedCall.join(KEY, TestThreader.create(first), callable, queue::add);
+        queue.remove(0).run();
+
+        // When another threader joins, we expect a new call.
+        SharedCall.join(KEY, TestThreader.create(second), callable, queue::add);
+        assertThat(queue.size(), is(1));
+        queue.remove(0).run();
+        verify(second).deliver("Result 2");
+    }
+
+    @Test
+    public void cancelledThreaderDoesNotCancelOthers() {
+        final Threader<String> cancelled = TestThreader.create(first);
+        SharedCall.join(KEY, cancelled, callable, queue::add);
+        SharedCall.join(KEY, TestThreader.create(second), callable, queue::add);
+
+        // When one of them is cancelled:
+        cancelled.cancel(true);
+        queue.remove(0).run();
+
+        // We expect the other one to receive the result.
+        verify(first, never()).deliver("Result 1");
+        verify(second).deliver("Result 1");
+    }
+
+    @Test
+    public void callIsCancelledWithTheLastThreader() {
+        final Threader<String> threader = TestThreader.create(first);
+        SharedCall.join(KEY, threader, callable, queue::add);
+
+        // When the only threader is cancelled:
+        threader.cancel(true);
+
+        // We expect the call not to run, nor to be shared anymore.
+        assertThat(SharedCall.isInFlight(KEY), is(false));
+        queue.remove(0).run();
+        assertThat(calls.get(), is(0));
+    }
+
+    @Test
+    public void errorFreesTheKey() {
+        SharedCall.join(KEY, TestThreader.create(first), () -> {
+            throw new LinkageError("Broken");
+        }, queue::add);
+
+        // When the call throws an Error:
+        try {
+            queue.remove(0).run();
+            fail();
+        } catch (LinkageError expected) {
+            // Left to the thread.
+        }
+
+        // We expect the key free, the next task starts its own call.
+        assertThat(SharedCall.isInFlight(KEY), is(false));
+        SharedCall.join(KEY, TestThreader.create(second), callable, queue::add);
+        assertThat(queue.size(), is(1));
+        queue.remove(0).run();
+        verify(second).deliver("Result 1");
+    }
+}
@@ -0,0 +1,136 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SourceSubscriptionTest {
+
+    private int pulled;
+
+    // A source of the numbers up to five.
+    private final AsyncFlow.Source<Integer> source = new AsyncFlow.Source<Integer>() {
+        @Override
+        public boolean hasNext() {
+            return pulled < 5;
+        }
+
+        @Override
+        public Integer next() {
+            return ++pulled;
+        }
+    };
+
+    private final Recorder recorder = new Recorder();
+
+    @Test
+    public void pullsOnlyWhatIsRequested() {
+        start(null);
+
+        recorder.subscription.request(2);
+
+        assertThat(pulled, is(2));
+        assertThat(recorder.items, is(Arrays.asList(1, 2)));
+        assertThat(recorder.completed, is(false));
+    }
+
+    @Test
+    public void completesWhenExhausted() {
+        start(null);
+
+        recorder.subscription.request(Long.MAX_VALUE);
+
+        assertThat(recorder.items, is(Arrays.asList(1, 2, 3, 4, 5)));
+        assertThat(recorder.completed, is(true));
+    }
+
+    @Test
+    public void demandPausesWhileStopped() {
+        final LifecycleOwner owner = mock(LifecycleOwner.class);
+        final Lifecycle lifecycle = mock(Lifecycle.class);
+        when(owner.getLifecycle()).thenReturn(lifecycle);
+        final SourceSubscription<Integer> subscription = start(owner);
+
+        // Given the owner is started, and values are requested:
+        subscription.onStarted();
+        recorder.subscription.request(1);
+        assertThat(pulled, is(1));
+
+        // When it stops, we expect nothing pulled.
+        subscription.onStopped();
+        recorder.subscription.request(2);
+        assertThat(pulled, is(1));
+
+        // And the pending demand to resume on start.
+        subscription.onStarted();
+        assertThat(recorder.items, is(Arrays.asList(1, 2, 3)));
+
+        // Nothing is pulled either after it's destroyed.
+        subscription.onDestroyed();
+        recorder.subscription.request(2);
+        assertThat(pulled, is(3));
+        verify(lifecycle).removeObserver(subscription);
+    }
+
+    @Test
+    public void invalidRequestFails() {
+        start(null);
+
+        recorder.subscription.request(0);
+
+        assertThat(pulled, is(0));
+        assertThat(recorder.error instanceof IllegalArgumentException, is(true));
+    }
+
+    @NonNull
+    private SourceSubscription<Integer> start(@Nullable LifecycleOwner owner) {
+        final SourceSubscription<Integer> subscription =
+                new SourceSubscription<>(source, recorder, Runnable::run, owner, false);
+        subscription.start();
+        return subscription;
+    }
+
+    private static final class Recorder implements AsyncFlow.Subscriber<Integer> {
+
+        final List<Integer> items = new ArrayList<>();
+
+        AsyncFlow.Subscription subscription;
+
+        Throwable error;
+
+        boolean completed;
+
+        @Override
+        public void onSubscribe(@NonNull AsyncFlow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(@Nullable Integer item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(@NonNull Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
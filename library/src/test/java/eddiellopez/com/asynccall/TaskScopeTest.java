@@ -0,0 +1,143 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+public class TaskScopeTest {
+
+    private final TaskScope scope = new TaskScope();
+
+    @Test
+    public void tracksTasksUntilDone() {
+        final TestThreader threader = threader();
+        assertThat(scope.size(), is(1));
+
+        // When done, we expect it out of the scope.
+        threader.completeShared("Result", null);
+        assertThat(scope.size(), is(0));
+    }
+
+    @Test
+    public void stopsAndStartsAllTasks() {
+        final TestThreader first = threader();
+        final TestThreader second = threader();
+
+        scope.onStopped();
+        assertThat(first.isDelivering(), is(false));
+        assertThat(second.isDelivering(), is(false));
+
+        // Tasks started while stopped are stopped as well.
+        final TestThreader third = threader();
+        assertThat(third.isDelivering(), is(false));
+
+        scope.onStarted();
+        assertThat(first.isDelivering(), is(true));
+        assertThat(third.isDelivering(), is(true));
+    }
+
+    @Test
+    public void cancelsAllTasksOnDestroy() {
+        final TestThreader first = threader();
+        final TestThreader second = threader();
+
+        scope.onDestroyed();
+
+        assertThat(first.isCancelled(), is(true));
+        assertThat(second.isCancelled(), is(true));
+        assertThat(scope.size(), is(0));
+
+        // We expect tasks started later to be cancelled right away.
+        assertThat(threader().isCancelled(), is(true));
+    }
+
+    @Test
+    public void ownerGetsANewScopeAfterDestroy() {
+        final LifecycleOwner owner = mock(LifecycleOwner.class);
+        when(owner.getLifecycle()).thenReturn(mock(Lifecycle.class));
+        final TaskScope first = TaskScope.of(owner);
+        assertThat(TaskScope.of(owner), is(sameInstance(first)));
+
+        first.onDestroyed();
+
+        // We expect a live scope, not the destroyed one.
+        final TaskScope second = TaskScope.of(owner);
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(second.getState(), is(Lifecycle.State.STARTED));
+
+        // A stale destroy doesn't drop the new scope.
+        first.onDestroyed();
+        assertThat(TaskScope.of(owner), is(sameInstance(second)));
+    }
+
+    @Test
+    public void parksTasksWhileStopped() {
+        final List<Runnable> queue = new ArrayList<>();
+        final TestThreader threader = pausing(queue);
+
+        // Started while stopped, we expect it parked rather than queued.
+        scope.onStopped();
+        threader.submit(() -> "Result");
+        assertThat(queue.size(), is(0));
+
+        scope.onStarted();
+        assertThat(queue.size(), is(1));
+
+        // Stopped while queued, we expect it parked again when dequeued.
+        scope.onStopped();
+        queue.remove(0).run();
+        assertThat(threader.isDone(), is(false));
+        assertThat(queue.size(), is(0));
+
+        scope.onStarted();
+        queue.remove(0).run();
+        assertThat(threader.isDone(), is(true));
+    }
+
+    @Test
+    public void dropsParkedTasksOnDestroy() {
+        final List<Runnable> queue = new ArrayList<>();
+        final TestThreader threader = pausing(queue);
+
+        scope.onStopped();
+        threader.submit(() -> "Result");
+        scope.onDestroyed();
+
+        assertThat(threader.isCancelled(), is(true));
+        assertThat(queue.size(), is(0));
+    }
+
+    @NonNull
+    private TestThreader threader() {
+        final TaskOptions options = new TaskOptions();
+        options.scope = scope;
+        return TestThreader.create(options);
+    }
+
+    @NonNull
+    private TestThreader pausing(@NonNull List<Runnable> queue) {
+        final ExecutorService executor = mock(ExecutorService.class);
+        doAnswer(invocation -> queue.add(invocation.getArgument(0)))
+                .when(executor).execute(any(Runnable.class));
+        final TaskOptions options = new TaskOptions();
+        options.scope = scope;
+        options.pauseWhileStopped = true;
+        return TestThreader.create(executor, result -> {
+        }, options);
+    }
+}
@@ -1,5 +1,7 @@
 package eddiellopez.com.asynccall;
 
+import static org.mockito.Mockito.mock;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.LifecycleOwner;
@@ -17,6 +19,50 @@ class TestThreader extends Threader<String> {
         super(executor, onExceptionHandler, lifecycleOwner, deliveryProcedure);
     }
 
+    protected TestThreader(
+            @NonNull ExecutorService executor,
+            @Nullable OnExceptionHandler onExceptionHandler,
+            @Nullable LifecycleOwner lifecycleOwner,
+            DeliveryProcedure<String> deliveryProcedure,
+            @NonNull TaskOptions options
+    ) {
+        super(executor, onExceptionHandler, lifecycleOwner, deliveryProcedure, options);
+    }
+
+    /**
+     * @param options The options.
+     * @return A threader on a mock executor, without owner, ignoring its outcome.
+     */
+    @NonNull
+    static TestThreader create(@NonNull TaskOptions options) {
+        return create(mock(ExecutorService.class), result -> {
+        }, options);
+    }
+
+    /**
+     * @param deliveryProcedure Receives the result.
+     * @return A threader on a mock executor, without owner.
+     */
+    @NonNull
+    static TestThreader create(@NonNull DeliveryProcedure<String> deliveryProcedure) {
+        return create(mock(ExecutorService.class), deliveryProcedure, new TaskOptions());
+    }
+
+    /**
+     * @param executor          The executor.
+     * @param deliveryProcedure Receives the result.
+     * @param options           The options.
+     * @return A threader without owner.
+     */
+    @NonNull
+    static TestThreader create(
+            @NonNull ExecutorService executor,
+            @NonNull DeliveryProcedure<String> deliveryProcedure,
+            @NonNull TaskOptions options
+    ) {
+        return new TestThreader(executor, null, null, deliveryProcedure, options);
+    }
+
     @Override
     public void start() {
         throw new UnsupportedOperationException();
@@ -1,17 +1,32 @@
 package eddiellopez.com.asynccall;
 
+import androidx.annotation.NonNull;
 import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.LifecycleOwner;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -73,4 +88,424 @@ public class ThreaderTest {
         // We expect is executed in the executor
         verify(executor).execute(Mockito.any());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void cancel() {
+        // Any threader, not yet run
+        final TestThreader threader = new TestThreader(
+                executor,
+                onExceptionHandler,
+                lifecycleOwner,
+                deliveryProcedure
+        );
+
+        // When cancelled...
+        final boolean cancelled = threader.cancel(true);
+
+        // We expect it to be cancelled and done, and the lifecycle no longer observed.
+        assertThat(cancelled, is(true));
+        assertThat(threader.isCancelled(), is(true));
+        assertThat(threader.isDone(), is(true));
+        verify(lifecycle).removeObserver(threader);
+
+        // And nothing to happen if it runs anyway.
+        threader.run();
+        verify(deliveryProcedure, never()).deliver(Mockito.any());
+        verify(onExceptionHandler, never()).onFailure(Mockito.any());
+
+        // A second cancellation has no effect.
+        assertThat(threader.cancel(true), is(false));
+    }
+
+    @Test
+    public void cancelOnDestroy() {
+        // Any threader, with lifecycle owner
+        final TestThreader threader = new TestThreader(
+                executor,
+                onExceptionHandler,
+                lifecycleOwner,
+                deliveryProcedure
+        );
+        assertThat(threader.isDone(), is(false));
+
+        // When the lifecycle owner is destroyed...
+        threader.onDestroyed();
+
+        // We expect the task to be cancelled.
+        assertThat(threader.isCancelled(), is(true));
+    }
+
+    @Test
+    public void pausesWhileTheOwnerIsStopped() throws Exception {
+        final List<Runnable> queue = queue();
+        when(callable.call()).thenReturn("Result");
+        final TaskOptions options = new TaskOptions();
+        options.pauseWhileStopped = true;
+
+        // Given a task observing its owner, queued:
+        final TestThreader threader = new TestThreader(
+                executor,
+                onExceptionHandler,
+                lifecycleOwner,
+                deliveryProcedure,
+                options
+        );
+        threader.submit(callable);
+        assertThat(queue.size(), is(1));
+
+        // When the owner stops before it runs...
+        threader.onStopped();
+        queue.remove(0).run();
+
+        // We expect it to wait, without reading the lifecycle off the UI Thread.
+        verify(callable, never()).call();
+        assertThat(queue.size(), is(0));
+        verify(lifecycle, never()).getCurrentState();
+
+        // And to run once the owner starts again.
+        threader.onStarted();
+        queue.remove(0).run();
+        verify(deliveryProcedure).deliver("Result");
+    }
+
+    @Test
+    public void stickyResultIsDeliveredOnStart() throws Exception {
+        final List<Runnable> queue = queue();
+        when(callable.call()).thenReturn("Result");
+
+        // Given a sticky task finishing while its owner is stopped:
+        final TestThreader threader = sticky(true);
+        threader.submit(callable);
+        threader.onStopped();
+        queue.remove(0).run();
+        verify(deliveryProcedure, never()).deliver(Mockito.any());
+
+        // When the owner starts, more than once...
+        threader.onStarted();
+        threader.onStopped();
+        threader.onStarted();
+
+        // We expect the result delivered once, and the lifecycle no longer observed.
+        verify(deliveryProcedure).deliver("Result");
+        verify(lifecycle).removeObserver(threader);
+    }
+
+    @Test
+    public void resultIsDroppedWhenNotSticky() throws Exception {
+        final List<Runnable> queue = queue();
+        when(callable.call()).thenReturn("Result");
+
+        // Given a task that isn't sticky, finishing while its owner is stopped:
+        final TestThreader threader = sticky(false);
+        threader.submit(callable);
+        threader.onStopped();
+        queue.remove(0).run();
+
+        // We expect the result dropped, even once the owner starts.
+        verify(lifecycle).removeObserver(threader);
+        threader.onStarted();
+        verify(deliveryProcedure, never()).deliver(Mockito.any());
+    }
+
+    @Test
+    public void withheldResultIsReleasedOnDestroy() throws Exception {
+        final List<Runnable> queue = queue();
+        when(callable.call()).thenReturn("Result");
+
+        // Given a sticky result withheld while the owner is stopped:
+        final TestThreader threader = sticky(true);
+        threader.submit(callable);
+        threader.onStopped();
+        queue.remove(0).run();
+
+        // When the owner is destroyed...
+        threader.onDestroyed();
+
+        // We expect the result released without delivery, and the lifecycle no longer observed.
+        verify(lifecycle).removeObserver(threader);
+        threader.onStarted();
+        verify(deliveryProcedure, never()).deliver(Mockito.any());
+    }
+
+    @Test
+    public void retriesAfterTheDelay() throws Exception {
+        final List<Runnable> queue = queue();
+        final ManualTimer timer = new ManualTimer();
+        when(callable.call()).thenThrow(new IOException("Offline")).thenReturn("Result");
+
+        // Given a task whose first attempt fails:
+        final TestThreader threader = retrying(timer);
+        threader.submit(callable);
+        queue.remove(0).run();
+        verify(onExceptionHandler, never()).onFailure(Mockito.any());
+
+        // We expect it submitted again once the delay elapses, not before.
+        timer.advance(99, TimeUnit.MILLISECONDS);
+        assertThat(queue.size(), is(0));
+        timer.advance(1, TimeUnit.MILLISECONDS);
+        assertThat(queue.size(), is(1));
+
+        // And the next attempt to deliver its result.
+        queue.remove(0).run();
+        verify(callable, times(2)).call();
+        verify(deliveryProcedure).deliver("Result");
+        verify(onExceptionHandler, never()).onFailure(Mockito.any());
+    }
+
+    @Test
+    public void cancelDuringTheBackoff() throws Exception {
+        final List<Runnable> queue = queue();
+        final ManualTimer timer = new ManualTimer();
+        when(callable.call()).thenThrow(new IOException("Offline"));
+
+        // Given a task waiting to retry:
+        final TestThreader threader = retrying(timer);
+        threader.submit(callable);
+        queue.remove(0).run();
+        assertThat(timer.pending(), is(1));
+
+        // When cancelled...
+        assertThat(threader.cancel(true), is(true));
+
+        // We expect the retry cancelled, and nothing submitted or delivered.
+        assertThat(timer.pending(), is(0));
+        timer.advance(1, TimeUnit.SECONDS);
+        assertThat(queue.size(), is(0));
+        verify(callable).call();
+        verify(deliveryProcedure, never()).deliver(Mockito.any());
+        verify(onExceptionHandler, never()).onFailure(Mockito.any());
+    }
+
+    @Test
+    public void asyncStageIsSubmittedAgain() {
+        final List<Runnable> queue = queue();
+        final List<String> steps = new ArrayList<>();
+
+        // Given a task, a stage, and an asynchronous stage:
+        final Pipeline<String> pipeline = Pipeline.append(Pipeline.append(() -> {
+            steps.add("task");
+            return "a";
+        }, value -> {
+            steps.add("then");
+            return value + "b";
+        }, false), value -> {
+            steps.add("thenAsync");
+            return value + "c";
+        }, true);
+        final TestThreader threader = new TestThreader(
+                executor, onExceptionHandler, null, deliveryProcedure);
+        threader.submit(pipeline);
+
+        // We expect the first run to stop before the asynchronous stage, submitting it.
+        queue.remove(0).run();
+        assertThat(steps, is(Arrays.asList("task", "then")));
+        assertThat(queue.size(), is(1));
+        verify(deliveryProcedure, never()).deliver(Mockito.any());
+
+        // And the next run to finish the pipeline.
+        queue.remove(0).run();
+        assertThat(steps, is(Arrays.asList("task", "then", "thenAsync")));
+        verify(deliveryProcedure).deliver("abc");
+    }
+
+    @Test
+    public void cancelInterruptsTheRunningAsyncStage() throws InterruptedException {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final List<Thread> workers = new ArrayList<>();
+        // Each run in a thread of its own, the hand off returns once the next stage runs.
+        doAnswer(invocation -> {
+            final Thread worker = new Thread((Runnable) invocation.getArgument(0));
+            workers.add(worker);
+            worker.start();
+            if (workers.size() == 2) {
+                running.await();
+            }
+            return null;
+        }).when(executor).execute(Mockito.any(Runnable.class));
+
+        // Given an asynchronous stage running, after the run that submitted it returned:
+        final Pipeline<String> pipeline = Pipeline.append(() -> "a", value -> {
+            running.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return value;
+        }, true);
+        final TestThreader threader = new TestThreader(
+                executor, onExceptionHandler, null, deliveryProcedure);
+        threader.submit(pipeline);
+        assertTrue(running.await(2, TimeUnit.SECONDS));
+        workers.get(0).join(TimeUnit.SECONDS.toMillis(2));
+
+        // When cancelled, allowing interruptions...
+        threader.cancel(true);
+
+        // We expect the stage interrupted.
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void retryResumesFromTheFailedStage() {
+        final List<Runnable> queue = queue();
+        final ManualTimer timer = new ManualTimer();
+        final List<String> steps = new ArrayList<>();
+
+        // Given an asynchronous stage failing once:
+        final Pipeline<String> pipeline = Pipeline.append(() -> {
+            steps.add("task");
+            return "a";
+        }, value -> {
+            steps.add("thenAsync");
+            if (steps.size() == 2) {
+                throw new IOException("Offline");
+            }
+            return value + "b";
+        }, true);
+        final TestThreader threader = retrying(timer);
+        threader.submit(pipeline);
+        queue.remove(0).run();
+        queue.remove(0).run();
+
+        // When retried...
+        timer.advance(100, TimeUnit.MILLISECONDS);
+        queue.remove(0).run();
+
+        // We expect the failed stage to run again, not the task.
+        assertThat(steps, is(Arrays.asList("task", "thenAsync", "thenAsync")));
+        verify(deliveryProcedure).deliver("ab");
+        verify(onExceptionHandler, never()).onFailure(Mockito.any());
+    }
+
+    @Test
+    public void cacheHitSkipsTheExecutor() throws Exception {
+        final LruResultCache cache = new LruResultCache(4);
+        cache.put("posts", "Cached", 60_000);
+
+        // Given a fresh result cached under the key of a threader:
+        final TestThreader threader = new TestThreader(
+                executor,
+                onExceptionHandler,
+                null,
+                deliveryProcedure,
+                cached(cache, false)
+        );
+
+        // When submitted...
+        threader.submit(callable);
+
+        // We expect the cached result to be delivered, without running the task.
+        verify(deliveryProcedure).deliver("Cached");
+        verify(executor, never()).execute(Mockito.any());
+        verify(callable, never()).call();
+    }
+
+    @Test
+    public void staleWhileRevalidate() throws Exception {
+        final LruResultCache cache = new LruResultCache(4);
+        cache.put("posts", "Stale", 0);
+        when(callable.call()).thenReturn("Fresh");
+        final ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+
+        // Given a stale result cached under the key of a threader:
+        final TestThreader threader = new TestThreader(
+                executor,
+                onExceptionHandler,
+                null,
+                deliveryProcedure,
+                cached(cache, true)
+        );
+
+        // When submitted...
+        threader.submit(callable);
+
+        // We expect the stale result to be delivered right away, and the task to refresh it.
+        verify(deliveryProcedure).deliver("Stale");
+        verify(executor).execute(refresh.capture());
+        refresh.getValue().run();
+        assertThat(cache.get("posts").getValue(), is((Object) "Fresh"));
+        verify(deliveryProcedure, never()).deliver("Fresh");
+    }
+
+    @Test
+    public void refreshesPerCache() {
+        final LruResultCache first = new LruResultCache(4);
+        final LruResultCache second = new LruResultCache(4);
+        first.put("posts", "Stale", 0);
+        second.put("posts", "Stale", 0);
+
+        // Given stale results under the same key of two caches, while refreshing:
+        new TestThreader(executor, onExceptionHandler, null, deliveryProcedure,
+                cached(first, true)).submit(callable);
+        new TestThreader(executor, onExceptionHandler, null, deliveryProcedure,
+                cached(second, true)).submit(callable);
+
+        // We expect each cache to be refreshed.
+        verify(executor, Mockito.times(2)).execute(Mockito.any());
+    }
+
+    @Test
+    public void expire() {
+        // Any threader, not yet done
+        final TestThreader threader = new TestThreader(
+                executor,
+                onExceptionHandler,
+                lifecycleOwner,
+                deliveryProcedure
+        );
+
+        // When its deadline passes...
+        threader.expire();
+
+        // We expect it to be cancelled, failing with a timeout.
+        assertThat(threader.isCancelled(), is(true));
+        verify(onExceptionHandler).onFailure(Mockito.isA(TimeoutException.class));
+        verify(lifecycle).removeObserver(threader);
+
+        // And nothing else to happen if the task runs anyway.
+        threader.run();
+        verify(deliveryProcedure, never()).deliver(Mockito.any());
+    }
+
+    @NonNull
+    private List<Runnable> queue() {
+        final List<Runnable> queue = new ArrayList<>();
+        doAnswer(invocation -> queue.add(invocation.getArgument(0)))
+                .when(executor).execute(Mockito.any(Runnable.class));
+        return queue;
+    }
+
+    @NonNull
+    private TestThreader sticky(boolean sticky) {
+        final TaskOptions options = new TaskOptions();
+        options.sticky = sticky;
+        return new TestThreader(
+                executor,
+                onExceptionHandler,
+                lifecycleOwner,
+                deliveryProcedure,
+                options
+        );
+    }
+
+    @NonNull
+    private TestThreader retrying(@NonNull ManualTimer timer) {
+        final TaskOptions options = new TaskOptions();
+        options.retryPolicy = RetryPolicy.exponential(3, 100, TimeUnit.MILLISECONDS)
+                .withJitter(0);
+        options.timer = timer;
+        return new TestThreader(executor, onExceptionHandler, null, deliveryProcedure, options);
+    }
+
+    @NonNull
+    private static TaskOptions cached(@NonNull ResultCache cache, boolean staleWhileRevalidate) {
+        final TaskOptions options = new TaskOptions();
+        options.key = "posts";
+        options.cache = cache;
+        options.cacheTtlMillis = 60_000;
+        options.staleWhileRevalidate = staleWhileRevalidate;
+        return options;
+    }
+}
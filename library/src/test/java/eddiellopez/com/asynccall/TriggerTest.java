@@ -0,0 +1,123 @@
+package eddiellopez.com.asynccall;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TriggerTest {
+
+    private final AtomicInteger submitted = new AtomicInteger();
+
+    private final ManualTimer timer = new ManualTimer();
+
+    @Test
+    public void switchLatestCancelsThePrevious() {
+        final Trigger trigger = Trigger.switchLatest("switch");
+        final TestThreader first = TestThreader.create(new TaskOptions());
+        final TestThreader second = TestThreader.create(new TaskOptions());
+
+        trigger.enter(first, submitted::incrementAndGet);
+        trigger.enter(second, submitted::incrementAndGet);
+
+        // We expect both submitted at once, and the first cancelled.
+        assertThat(submitted.get(), is(2));
+        assertThat(first.isCancelled(), is(true));
+        assertThat(second.isCancelled(), is(false));
+
+        // And the key forgotten when the latest is done.
+        trigger.leave(second);
+        assertThat(Trigger.isTracked("switch"), is(false));
+    }
+
+    @Test
+    public void debounceSubmitsOnlyTheLatest() {
+        final Trigger trigger = Trigger.debounce("debounce", 50, TimeUnit.MILLISECONDS)
+                .using(timer);
+        final TestThreader first = TestThreader.create(new TaskOptions());
+        final TestThreader second = TestThreader.create(new TaskOptions());
+        final TestThreader third = TestThreader.create(new TaskOptions());
+
+        // Given a burst of tasks:
+        trigger.enter(first, submitted::incrementAndGet);
+        trigger.enter(second, submitted::incrementAndGet);
+        trigger.enter(third, submitted::incrementAndGet);
+        assertThat(submitted.get(), is(0));
+
+        // We expect only the last one submitted, after the delay.
+        timer.advance(49, TimeUnit.MILLISECONDS);
+        assertThat(submitted.get(), is(0));
+        timer.advance(1, TimeUnit.MILLISECONDS);
+        assertThat(submitted.get(), is(1));
+        assertThat(first.isCancelled(), is(true));
+        assertThat(second.isCancelled(), is(true));
+        assertThat(third.isCancelled(), is(false));
+    }
+
+    @Test
+    public void throttleSubmitsOncePerPeriod() {
+        final Trigger trigger = Trigger.throttle("throttle", 100, TimeUnit.MILLISECONDS)
+                .using(timer);
+        final TestThreader first = TestThreader.create(new TaskOptions());
+        final TestThreader second = TestThreader.create(new TaskOptions());
+        final TestThreader third = TestThreader.create(new TaskOptions());
+
+        // The first one is submitted at once.
+        trigger.enter(first, submitted::incrementAndGet);
+        assertThat(submitted.get(), is(1));
+
+        // The next ones wait for the period to end, superseding each other.
+        trigger.enter(second, submitted::incrementAndGet);
+        trigger.enter(third, submitted::incrementAndGet);
+        assertThat(submitted.get(), is(1));
+        assertThat(second.isCancelled(), is(true));
+
+        // We expect the first one left running, and the last one submitted later.
+        assertThat(first.isCancelled(), is(false));
+        timer.advance(99, TimeUnit.MILLISECONDS);
+        assertThat(submitted.get(), is(1));
+        timer.advance(1, TimeUnit.MILLISECONDS);
+        assertThat(submitted.get(), is(2));
+    }
+
+    @Test
+    public void throttleForgetsTheKeyAfterThePeriod() {
+        final Trigger trigger = Trigger.throttle("forget", 100, TimeUnit.MILLISECONDS)
+                .using(timer);
+        final TestThreader first = TestThreader.create(new TaskOptions());
+
+        // Given a task done within its period:
+        trigger.enter(first, submitted::incrementAndGet);
+        timer.advance(10, TimeUnit.MILLISECONDS);
+        trigger.leave(first);
+
+        // We expect the key kept until the period ends, then forgotten.
+        assertThat(Trigger.isTracked("forget"), is(true));
+        timer.advance(90, TimeUnit.MILLISECONDS);
+        assertThat(Trigger.isTracked("forget"), is(false));
+    }
+
+    @Test
+    public void throttleKeepsTheKeyTakenAgain() {
+        final Trigger trigger = Trigger.throttle("again", 100, TimeUnit.MILLISECONDS)
+                .using(timer);
+        final TestThreader first = TestThreader.create(new TaskOptions());
+        final TestThreader second = TestThreader.create(new TaskOptions());
+
+        // Given a task done within its period, and another one started before it ends:
+        trigger.enter(first, submitted::incrementAndGet);
+        trigger.leave(first);
+        trigger.enter(second, submitted::incrementAndGet);
+
+        // We expect the key kept for the waiting one, submitted at the end of the period.
+        timer.advance(100, TimeUnit.MILLISECONDS);
+        assertThat(Trigger.isTracked("again"), is(true));
+        assertThat(submitted.get(), is(2));
+        trigger.leave(second);
+        timer.advance(100, TimeUnit.MILLISECONDS);
+        assertThat(Trigger.isTracked("again"), is(false));
+    }
+}